@@ -0,0 +1,17 @@
+package org.cosline.client.benchmark;
+
+import java.util.Random;
+
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static float[] randomVector(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
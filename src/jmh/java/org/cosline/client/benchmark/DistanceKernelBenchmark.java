@@ -0,0 +1,71 @@
+package org.cosline.client.benchmark;
+
+import org.cosline.client.distance.VectorKernel;
+import org.cosline.client.distance.VectorKernels;
+import org.cosline.client.store.CoslineVectorStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-pair throughput of the distance kernels, SIMD against scalar, at common
+ * embedding dimensions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class DistanceKernelBenchmark {
+
+    @Param({"384", "768", "1536", "3072"})
+    int dimension;
+
+    @Param({"simd", "scalar"})
+    String kernelType;
+
+    private VectorKernel kernel;
+    private float[] vectorX;
+    private float[] vectorY;
+
+    @Setup
+    public void setup() {
+        kernel = "scalar".equals(kernelType) ? VectorKernels.scalar() : VectorKernels.get();
+        Random random = new Random(42);
+        vectorX = BenchmarkData.randomVector(random, dimension);
+        vectorY = BenchmarkData.randomVector(random, dimension);
+    }
+
+    @Benchmark
+    public float dotProduct() {
+        return kernel.dotProduct(vectorX, vectorY);
+    }
+
+    @Benchmark
+    public float cosine() {
+        return kernel.cosine(vectorX, vectorY);
+    }
+
+    @Benchmark
+    public float squaredEuclidean() {
+        return kernel.squaredEuclidean(vectorX, vectorY);
+    }
+
+    @Benchmark
+    public float manhattan() {
+        return kernel.manhattan(vectorX, vectorY);
+    }
+
+    // The public entry points of the store, which always use the default kernel
+    @Benchmark
+    public double storeCosineSimilarity() {
+        return CoslineVectorStore.cosineSimilarity(vectorX, vectorY);
+    }
+
+    @Benchmark
+    public float storeDotProduct() {
+        return CoslineVectorStore.dotProduct(vectorX, vectorY);
+    }
+}
@@ -0,0 +1,62 @@
+package org.cosline.client.benchmark;
+
+import org.cosline.client.filtercriteria.CoslineFilterExpressionConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of balanced AND/OR trees of {@code depth} levels, with
+ * {@code 2^depth} comparison leaves, into server query parameters, by a fresh
+ * converter and by a shared one that answers from its cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterConversionBenchmark {
+
+    @Param({"2", "6", "10"})
+    int depth;
+
+    private Filter.Expression expression;
+    private final CoslineFilterExpressionConverter converter = new CoslineFilterExpressionConverter();
+
+    @Setup
+    public void setup() {
+        expression = tree(depth, 0);
+    }
+
+    @Benchmark
+    public String convertToQueryParams() {
+        return new CoslineFilterExpressionConverter().convertToQueryParams(expression);
+    }
+
+    @Benchmark
+    public String convertToQueryParamsCached() {
+        return converter.convertToQueryParams(expression);
+    }
+
+    private static Filter.Expression tree(int depth, int leaf) {
+        if (depth == 0) {
+            return leaf(leaf);
+        }
+        Filter.ExpressionType type = depth % 2 == 0 ? Filter.ExpressionType.AND : Filter.ExpressionType.OR;
+        int width = 1 << (depth - 1);
+        return new Filter.Expression(type, tree(depth - 1, leaf), tree(depth - 1, leaf + width));
+    }
+
+    private static Filter.Expression leaf(int leaf) {
+        Filter.Key key = new Filter.Key("field" + leaf);
+        return switch (leaf % 4) {
+            case 0 -> new Filter.Expression(Filter.ExpressionType.EQ, key, new Filter.Value("value-" + leaf));
+            case 1 -> new Filter.Expression(Filter.ExpressionType.GTE, key, new Filter.Value(leaf));
+            case 2 -> new Filter.Expression(Filter.ExpressionType.IN, key, new Filter.Value(List.of("a", "b", "c")));
+            default -> new Filter.Expression(Filter.ExpressionType.NE, key, new Filter.Value(leaf * 0.5));
+        };
+    }
+}
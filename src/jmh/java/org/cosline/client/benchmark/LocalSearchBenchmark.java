@@ -0,0 +1,80 @@
+package org.cosline.client.benchmark;
+
+import org.cosline.client.distance.DistanceFunctions;
+import org.cosline.client.model.Distance;
+import org.cosline.client.store.LocalVectorIndex;
+import org.cosline.client.store.ParallelScan;
+import org.cosline.client.store.TopKCollector;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.ai.document.Document;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end exact top-10 search over the local store, sequential and on the parallel
+ * scan pool. The dimension is kept at 384 so a million vectors fit a default heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Xmx4g"})
+public class LocalSearchBenchmark {
+
+    private static final int TOP_K = 10;
+
+    @Param({"10000", "100000", "1000000"})
+    int documents;
+
+    @Param({"384"})
+    int dimension;
+
+    @Param({"Cosine", "Euclid"})
+    Distance distance;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    private LocalVectorIndex index;
+    private ParallelScan parallelScan;
+    private float[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        index = new LocalVectorIndex(DistanceFunctions.forDistance(distance));
+        Random random = new Random(42);
+        for (int i = 0; i < documents; i++) {
+            Document document = new Document("doc-" + i, "", Map.of("bucket", i % 16));
+            document.setEmbedding(BenchmarkData.randomVector(random, dimension));
+            index.add(document);
+        }
+        if (parallel) {
+            parallelScan = new ParallelScan(Runtime.getRuntime().availableProcessors(),
+                    ParallelScan.DEFAULT_THRESHOLD, ParallelScan.DEFAULT_CHUNK_SIZE);
+            index.setParallelScan(parallelScan);
+        }
+        queries = new float[64][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = BenchmarkData.randomVector(random, dimension);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        index.close();
+        if (parallelScan != null) {
+            parallelScan.close();
+        }
+    }
+
+    @Benchmark
+    public TopKCollector search() {
+        float[] query = queries[next++ & (queries.length - 1)];
+        return index.search(query, TOP_K, -Double.MAX_VALUE);
+    }
+}
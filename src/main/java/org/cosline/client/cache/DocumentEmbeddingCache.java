@@ -0,0 +1,278 @@
+package org.cosline.client.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * A disk-backed cache of document embeddings keyed on a hash of their content, so that
+ * re-ingesting unchanged documents skips the call to the embedding model.
+ * <p>
+ * Embeddings are appended to a log file in the cache directory, each record holding the
+ * SHA-256 of the model identity, the dimension and the content, followed by the vector.
+ * The identity must change whenever the model would embed the same text differently, so
+ * name the model and its options rather than its client class. Opening the
+ * cache scans the log once and keeps only the hashes and file offsets in memory; vectors
+ * are read from the file on a hit. Records are never rewritten, so the log grows with the
+ * number of distinct contents ever embedded; delete the directory to start over.
+ * <p>
+ * Records are length-prefixed and checksummed like the snapshot journal. Opening checks
+ * the last record and drops it if a crash tore it; every other record is checked when it
+ * is read, and a damaged one, or one whose vector is not of the cache's dimension, counts
+ * as a miss and is stored again. Appends are handed to
+ * the operating system right away and forced to disk by {@link #flush()} and
+ * {@link #close()}.
+ * <p>
+ * Thread-safe. Lookups read the file with positional reads and do not block appends.
+ */
+public final class DocumentEmbeddingCache implements Closeable {
+
+    private static final String LOG = "embeddings.log";
+    private static final int LOG_MAGIC = 0x31434543;
+    private static final int LOG_HEADER_BYTES = 8;
+    private static final int HASH_BYTES = 32;
+
+    // The content hash; arrays have no structural equality, so it is kept as four longs
+    private record Hash(long a, long b, long c, long d) {
+
+        static Hash of(ByteBuffer buffer) {
+            return new Hash(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+    }
+
+    // Where a record starts in the log, and the length of its payload
+    private record Slot(long offset, int payloadLength) {
+    }
+
+    private final byte[] model;
+    private final int dimensions;
+    private final FileChannel log;
+    private final Map<Hash, Slot> index;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private DocumentEmbeddingCache(byte[] model, int dimensions, FileChannel log, Map<Hash, Slot> index) {
+        this.model = model;
+        this.dimensions = dimensions;
+        this.log = log;
+        this.index = index;
+    }
+
+    /**
+     * Opens the cache in {@code directory}, creating it if needed, for embeddings of
+     * {@code dimensions} floats. Entries stored under a different {@code model} identity or
+     * dimension are never returned.
+     */
+    public static DocumentEmbeddingCache open(Path directory, String model, int dimensions) throws IOException {
+        if (model == null || model.isBlank()) {
+            throw new IllegalArgumentException("The embedding cache needs a model identity");
+        }
+        if (dimensions <= 0) {
+            throw new IllegalArgumentException("Dimensions must be positive, but got: " + dimensions);
+        }
+        Files.createDirectories(directory);
+        FileChannel log = FileChannel.open(directory.resolve(LOG),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            Map<Hash, Slot> index = readLog(log);
+            return new DocumentEmbeddingCache((model + '/' + dimensions).getBytes(StandardCharsets.UTF_8), dimensions, log, index);
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the stored embedding of {@code content}, or {@code null} if it has not been
+     * embedded yet.
+     */
+    public float[] get(String content) {
+        Hash hash = hash(content);
+        Slot slot;
+        synchronized (this) {
+            slot = index.get(hash);
+        }
+        if (slot == null) {
+            misses.increment();
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.allocate(2 * Integer.BYTES + slot.payloadLength()).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            readFully(log, record, slot.offset());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the embedding cache", e);
+        }
+        record.flip();
+        if (!intact(record, hash) || record.getInt(record.position()) != dimensions) {
+            synchronized (this) {
+                index.remove(hash, slot);
+            }
+            misses.increment();
+            return null;
+        }
+        float[] embedding = new float[record.getInt()];
+        record.asFloatBuffer().get(embedding);
+        hits.increment();
+        return embedding;
+    }
+
+    /**
+     * Stores the embedding of {@code content}, unless one is stored already. Embeddings not
+     * of the cache's dimension are not stored.
+     */
+    public synchronized void put(String content, float[] embedding) {
+        if (embedding.length != dimensions) {
+            return;
+        }
+        Hash hash = hash(content);
+        if (index.containsKey(hash)) {
+            return;
+        }
+        int payloadLength = HASH_BYTES + Integer.BYTES + embedding.length * Float.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + payloadLength).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(payloadLength).putInt(0);
+        buffer.order(ByteOrder.BIG_ENDIAN).putLong(hash.a()).putLong(hash.b()).putLong(hash.c()).putLong(hash.d());
+        buffer.order(ByteOrder.LITTLE_ENDIAN).putInt(embedding.length);
+        for (float value : embedding) {
+            buffer.putFloat(value);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 2 * Integer.BYTES, payloadLength);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        buffer.flip();
+        try {
+            long start = log.size();
+            long position = start;
+            while (buffer.hasRemaining()) {
+                position += log.write(buffer, position);
+            }
+            index.put(hash, new Slot(start, payloadLength));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the embedding cache", e);
+        }
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public synchronized void flush() throws IOException {
+        log.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (log.isOpen()) {
+            log.force(false);
+            log.close();
+        }
+    }
+
+    // Checks the record against its checksum and hash, leaving the buffer at the dimension
+    private static boolean intact(ByteBuffer record, Hash hash) {
+        if (record.remaining() < 2 * Integer.BYTES + HASH_BYTES + Integer.BYTES) {
+            return false;
+        }
+        int payloadLength = record.getInt();
+        int checksum = record.getInt();
+        if (payloadLength != record.remaining()) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), record.position(), payloadLength);
+        if ((int) crc.getValue() != checksum || !Hash.of(record.order(ByteOrder.BIG_ENDIAN)).equals(hash)) {
+            return false;
+        }
+        record.order(ByteOrder.LITTLE_ENDIAN);
+        return record.remaining() == Integer.BYTES + record.getInt(record.position()) * Float.BYTES;
+    }
+
+    private Hash hash(String content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        digest.update(model);
+        // Separates the model from the content, so no two pairs hash the same bytes
+        digest.update((byte) 0);
+        digest.update(content == null ? new byte[0] : content.getBytes(StandardCharsets.UTF_8));
+        return Hash.of(ByteBuffer.wrap(digest.digest()));
+    }
+
+    private static Map<Hash, Slot> readLog(FileChannel log) throws IOException {
+        long size = log.size();
+        Map<Hash, Slot> index = new HashMap<>();
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(log, header, 0);
+        if (header.position() < LOG_HEADER_BYTES || header.flip().getInt() != LOG_MAGIC) {
+            log.truncate(0);
+            header.clear().putInt(LOG_MAGIC).putInt(0).flip();
+            log.write(header, 0);
+            log.force(false);
+            return index;
+        }
+        // Only record headers and hashes are read; vectors stay on disk until requested
+        ByteBuffer prefix = ByteBuffer.allocate(2 * Integer.BYTES + HASH_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long position = LOG_HEADER_BYTES;
+        Hash lastHash = null;
+        Slot last = null;
+        while (position + prefix.capacity() <= size) {
+            prefix.clear();
+            readFully(log, prefix, position);
+            prefix.flip();
+            int payloadLength = prefix.getInt();
+            prefix.getInt();
+            if (payloadLength < HASH_BYTES + Integer.BYTES || payloadLength > size - position - 2 * Integer.BYTES) {
+                break;
+            }
+            lastHash = Hash.of(prefix.order(ByteOrder.BIG_ENDIAN));
+            prefix.order(ByteOrder.LITTLE_ENDIAN);
+            last = new Slot(position, payloadLength);
+            index.put(lastHash, last);
+            position += 2 * Integer.BYTES + payloadLength;
+        }
+        // Appends are sequential, so a crash can only have torn the last record
+        if (last != null) {
+            ByteBuffer record = ByteBuffer.allocate(2 * Integer.BYTES + last.payloadLength()).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(log, record, last.offset());
+            if (!intact(record.flip(), lastHash)) {
+                index.remove(lastHash, last);
+                position = last.offset();
+            }
+        }
+        // Drop a torn tail so new records follow the last complete one
+        log.truncate(position);
+        return index;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.cosline.client.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A map of at most {@code maxEntries} entries that evicts the least recently used entry
+ * and expires entries {@code ttl} after they were stored; a zero or negative TTL keeps
+ * them until they are evicted. Thread-safe, with one lock around each operation.
+ */
+final class ExpiringLruMap<K, V> {
+
+    private record Entry<V>(V value, long storedAt) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final LongAdder evictions = new LongAdder();
+
+    ExpiringLruMap(int maxEntries, Duration ttl, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.isNegative() || ttl.isZero() ? Long.MAX_VALUE : ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ExpiringLruMap.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // The live value of the key, or null if it is missing or has expired
+    synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.storedAt() >= ttlNanos) {
+            entries.remove(key);
+            evictions.increment();
+            return null;
+        }
+        return entry.value();
+    }
+
+    synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.getAsLong()));
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    // Entries dropped for size or expiry
+    long evictionCount() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,107 @@
+package org.cosline.client.cache;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * A bounded cache of query embeddings, so that repeated queries skip the call to the
+ * embedding model.
+ * <p>
+ * Entries are keyed on the model identity and the normalized query text. Normalization
+ * applies Unicode NFKC, trims the text and collapses runs of whitespace; case is kept,
+ * since embedding models are case-sensitive. On a miss the normalized text is what gets
+ * embedded, so every query mapping to an entry gets exactly its embedding.
+ * <p>
+ * Once {@code maxEntries} is reached the least recently used entry is evicted. Entries
+ * also expire {@code ttl} after they were stored; a zero or negative TTL keeps them until
+ * they are evicted. A cache of zero entries embeds every query.
+ * <p>
+ * Thread-safe. Lookups take a short lock, and the model is called outside of it, so two
+ * threads missing on the same query at once may both call the model. Cached arrays are
+ * shared between callers and must not be modified.
+ */
+public final class QueryEmbeddingCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final long DEFAULT_TTL_SECONDS = 600;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private record Key(String model, String query) {
+    }
+
+    private final String model;
+    private final int maxEntries;
+    private final ExpiringLruMap<Key, float[]> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public QueryEmbeddingCache(String model, int maxEntries, Duration ttl) {
+        this(model, maxEntries, ttl, System::nanoTime);
+    }
+
+    QueryEmbeddingCache(String model, int maxEntries, Duration ttl, LongSupplier clock) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("query-embedding-cache-size must not be negative");
+        }
+        this.model = model;
+        this.maxEntries = maxEntries;
+        this.entries = new ExpiringLruMap<>(maxEntries, ttl, clock);
+    }
+
+    /**
+     * Returns the cached embedding of {@code query}, or embeds its normalized text with
+     * {@code embed} and caches the result.
+     */
+    public float[] get(String query, Function<String, float[]> embed) {
+        String normalized = normalize(query);
+        if (maxEntries == 0) {
+            misses.increment();
+            return embed.apply(normalized);
+        }
+        Key key = new Key(model, normalized);
+        float[] cached = entries.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        float[] embedding = embed.apply(normalized);
+        if (embedding != null) {
+            entries.put(key, embedding);
+        }
+        return embedding;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    // Entries dropped for size or expiry
+    public long evictionCount() {
+        return entries.evictionCount();
+    }
+
+    static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(Normalizer.normalize(query, Normalizer.Form.NFKC).strip()).replaceAll(" ");
+    }
+}
@@ -0,0 +1,207 @@
+package org.cosline.client.cache;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded cache of similarity search results, so that a repeated request is answered
+ * without embedding the query or calling the server.
+ * <p>
+ * Requests are keyed on a canonical form of the query text, topK, similarity threshold
+ * and filter. The query is normalized like in {@link QueryEmbeddingCache}. In the filter,
+ * groups are unwrapped, nested AND and OR operands are flattened and sorted, IN and NIN
+ * lists are sorted and deduplicated, and surrounding quotes are dropped from keys. Filters
+ * that differ only in those respects therefore share an entry.
+ * <p>
+ * Entries are stamped with the version of the collection, which {@link #invalidate} bumps
+ * whenever the store writes to the collection. An entry of an older version is never
+ * served, and a search that overlapped a write does not store its result. Writes made by
+ * other clients are not seen; {@code ttl} bounds how stale a result can get. Entries are
+ * otherwise evicted least recently used first.
+ * <p>
+ * An entry holds the ranked documents, with their scores in the metadata where the search
+ * provided them. Each hit returns fresh documents with their own metadata maps; their
+ * embeddings are shared and must not be modified.
+ */
+public final class SearchResultCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    public static final long DEFAULT_TTL_SECONDS = 30;
+
+    private record Key(String query, int topK, double similarityThreshold, String filter) {
+    }
+
+    private record Entry(long version, List<Document> documents) {
+    }
+
+    private final int maxEntries;
+    private final ExpiringLruMap<Key, Entry> entries;
+    private final AtomicLong version = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public SearchResultCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    SearchResultCache(int maxEntries, Duration ttl, LongSupplier clock) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("search-result-cache-size must not be negative");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new ExpiringLruMap<>(maxEntries, ttl, clock);
+    }
+
+    /**
+     * Returns the cached results of an equivalent request, or runs {@code search} and
+     * caches its results.
+     */
+    public List<Document> get(SearchRequest request, Function<SearchRequest, List<Document>> search) {
+        if (maxEntries == 0) {
+            misses.increment();
+            return search.apply(request);
+        }
+        Key key = new Key(QueryEmbeddingCache.normalize(request.getQuery()), request.getTopK(),
+                request.getSimilarityThreshold(), canonicalFilter(request.getFilterExpression()));
+        long searchedVersion = version.get();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() == searchedVersion) {
+            hits.increment();
+            return copyOf(entry.documents());
+        }
+        misses.increment();
+        List<Document> results = search.apply(request);
+        // The search may have read a collection that a concurrent write has changed since
+        if (results != null && version.get() == searchedVersion) {
+            entries.put(key, new Entry(searchedVersion, copyOf(results)));
+        }
+        return results;
+    }
+
+    /**
+     * Drops every entry; called when the collection is written to.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private static List<Document> copyOf(List<Document> documents) {
+        List<Document> copies = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            Document copy = new Document(document.getId(), document.getContent(), new HashMap<>(document.getMetadata()));
+            if (document.getEmbedding() != null) {
+                copy.setEmbedding(document.getEmbedding());
+            }
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    static String canonicalFilter(Filter.Expression expression) {
+        if (expression == null) {
+            return "";
+        }
+        StringBuilder canonical = new StringBuilder();
+        appendOperand(canonical, expression);
+        return canonical.toString();
+    }
+
+    private static void appendOperand(StringBuilder canonical, Filter.Operand operand) {
+        if (operand instanceof Filter.Group group) {
+            appendOperand(canonical, group.content());
+        } else if (operand instanceof Filter.Expression expression) {
+            appendExpression(canonical, expression);
+        } else if (operand instanceof Filter.Key key) {
+            canonical.append(unquote(key.key()));
+        } else if (operand instanceof Filter.Value value) {
+            appendValue(canonical, value.value());
+        } else {
+            throw new IllegalArgumentException("Unexpected filter operand: " + operand);
+        }
+    }
+
+    private static void appendExpression(StringBuilder canonical, Filter.Expression expression) {
+        switch (expression.type()) {
+            case AND, OR -> {
+                TreeSet<String> operands = new TreeSet<>();
+                collectOperands(expression.type(), expression, operands);
+                canonical.append(expression.type()).append('(').append(String.join(",", operands)).append(')');
+            }
+            case NOT -> {
+                canonical.append("NOT(");
+                appendOperand(canonical, expression.left());
+                canonical.append(')');
+            }
+            default -> {
+                canonical.append(expression.type()).append('(');
+                appendOperand(canonical, expression.left());
+                canonical.append(',');
+                appendOperand(canonical, expression.right());
+                canonical.append(')');
+            }
+        }
+    }
+
+    // Flattens nested operands of the same AND or OR, so the order and nesting of the terms do not matter
+    private static void collectOperands(Filter.ExpressionType type, Filter.Operand operand, TreeSet<String> operands) {
+        while (operand instanceof Filter.Group group) {
+            operand = group.content();
+        }
+        if (operand instanceof Filter.Expression expression && expression.type() == type) {
+            collectOperands(type, expression.left(), operands);
+            collectOperands(type, expression.right(), operands);
+        } else {
+            StringBuilder canonical = new StringBuilder();
+            appendOperand(canonical, operand);
+            operands.add(canonical.toString());
+        }
+    }
+
+    private static void appendValue(StringBuilder canonical, Object value) {
+        if (value instanceof Collection<?> values) {
+            TreeSet<String> elements = new TreeSet<>();
+            for (Object element : values) {
+                StringBuilder canonicalElement = new StringBuilder();
+                appendValue(canonicalElement, element);
+                elements.add(canonicalElement.toString());
+            }
+            canonical.append('[').append(String.join(",", elements)).append(']');
+        } else if (value instanceof String text) {
+            canonical.append('\'').append(text.replace("\\", "\\\\").replace("'", "\\'")).append('\'');
+        } else {
+            canonical.append(value);
+        }
+    }
+
+    private static String unquote(String key) {
+        if (key.length() >= 2 && (key.startsWith("\"") && key.endsWith("\"") || key.startsWith("'") && key.endsWith("'"))) {
+            return key.substring(1, key.length() - 1);
+        }
+        return key;
+    }
+}
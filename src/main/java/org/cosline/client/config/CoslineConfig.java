@@ -1,11 +1,27 @@
 package org.cosline.client.config;
 
+import org.cosline.client.cache.QueryEmbeddingCache;
+import org.cosline.client.cache.SearchResultCache;
+import org.cosline.client.index.HnswParameters;
+import org.cosline.client.index.QuantizationParameters;
 import org.cosline.client.model.Distance;
+import org.cosline.client.model.VectorEncoding;
 import org.cosline.client.properties.CoslineProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.cosline.client.store.BulkUpload;
+import org.cosline.client.store.CoslineVectorStore;
+import org.cosline.client.store.IngestionPipeline;
+import org.cosline.client.store.ParallelScan;
+import org.cosline.client.transport.CoslineTransport;
+import org.cosline.client.transport.PayloadCompression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -46,16 +62,64 @@ public class CoslineConfig {
         coslineProperties.setDimension(Integer.parseInt(env.getProperty("spring.ai.vectorstore.cosline.dimension")));
         coslineProperties.setDistance(Distance.valueOf(env.getProperty("spring.ai.vectorstore.cosline.distance")));
         coslineProperties.setApiKey(env.getProperty("spring.ai.vectorstore.cosline.api-key"));
+        coslineProperties.setServerSideSearch(env.getProperty("spring.ai.vectorstore.cosline.server-side-search", Boolean.class, true));
+        coslineProperties.setLocalStoreEnabled(env.getProperty("spring.ai.vectorstore.cosline.local-store-enabled", Boolean.class, false));
+        coslineProperties.setHnswEnabled(env.getProperty("spring.ai.vectorstore.cosline.hnsw-enabled", Boolean.class, false));
+        coslineProperties.setHnswM(env.getProperty("spring.ai.vectorstore.cosline.hnsw-m", Integer.class, HnswParameters.DEFAULT_M));
+        coslineProperties.setHnswEfConstruction(env.getProperty("spring.ai.vectorstore.cosline.hnsw-ef-construction", Integer.class, HnswParameters.DEFAULT_EF_CONSTRUCTION));
+        coslineProperties.setHnswEfSearch(env.getProperty("spring.ai.vectorstore.cosline.hnsw-ef-search", Integer.class, HnswParameters.DEFAULT_EF_SEARCH));
+        coslineProperties.setPqEnabled(env.getProperty("spring.ai.vectorstore.cosline.pq-enabled", Boolean.class, false));
+        coslineProperties.setPqSubspaces(env.getProperty("spring.ai.vectorstore.cosline.pq-subspaces", Integer.class, 0));
+        coslineProperties.setPqTrainingSampleSize(env.getProperty("spring.ai.vectorstore.cosline.pq-training-sample-size", Integer.class, QuantizationParameters.DEFAULT_TRAINING_SAMPLE_SIZE));
+        coslineProperties.setPqKeepFullVectors(env.getProperty("spring.ai.vectorstore.cosline.pq-keep-full-vectors", Boolean.class, true));
+        coslineProperties.setPqRerankFactor(env.getProperty("spring.ai.vectorstore.cosline.pq-rerank-factor", Integer.class, QuantizationParameters.DEFAULT_RERANK_FACTOR));
+        coslineProperties.setSnapshotDirectory(env.getProperty("spring.ai.vectorstore.cosline.snapshot-directory"));
+        coslineProperties.setParallelSearchEnabled(env.getProperty("spring.ai.vectorstore.cosline.parallel-search-enabled", Boolean.class, true));
+        coslineProperties.setParallelism(env.getProperty("spring.ai.vectorstore.cosline.parallelism", Integer.class, Runtime.getRuntime().availableProcessors()));
+        coslineProperties.setParallelThreshold(env.getProperty("spring.ai.vectorstore.cosline.parallel-threshold", Integer.class, ParallelScan.DEFAULT_THRESHOLD));
+        coslineProperties.setParallelChunkSize(env.getProperty("spring.ai.vectorstore.cosline.parallel-chunk-size", Integer.class, ParallelScan.DEFAULT_CHUNK_SIZE));
+        coslineProperties.setEmbeddingBatchSize(env.getProperty("spring.ai.vectorstore.cosline.embedding-batch-size", Integer.class, BulkUpload.DEFAULT_EMBEDDING_BATCH_SIZE));
+        coslineProperties.setMaxPayloadBytes(env.getProperty("spring.ai.vectorstore.cosline.max-payload-bytes", Integer.class, BulkUpload.DEFAULT_MAX_PAYLOAD_BYTES));
+        coslineProperties.setUploadMaxAttempts(env.getProperty("spring.ai.vectorstore.cosline.upload-max-attempts", Integer.class, BulkUpload.DEFAULT_MAX_ATTEMPTS));
+        coslineProperties.setUploadRetryBackoffMillis(env.getProperty("spring.ai.vectorstore.cosline.upload-retry-backoff-millis", Long.class, BulkUpload.DEFAULT_RETRY_BACKOFF_MILLIS));
+        coslineProperties.setIngestEmbeddingConcurrency(env.getProperty("spring.ai.vectorstore.cosline.ingest-embedding-concurrency", Integer.class, IngestionPipeline.DEFAULT_EMBEDDING_CONCURRENCY));
+        coslineProperties.setIngestSerializationConcurrency(env.getProperty("spring.ai.vectorstore.cosline.ingest-serialization-concurrency", Integer.class, IngestionPipeline.DEFAULT_SERIALIZATION_CONCURRENCY));
+        coslineProperties.setIngestUploadConcurrency(env.getProperty("spring.ai.vectorstore.cosline.ingest-upload-concurrency", Integer.class, IngestionPipeline.DEFAULT_UPLOAD_CONCURRENCY));
+        coslineProperties.setIngestQueueCapacity(env.getProperty("spring.ai.vectorstore.cosline.ingest-queue-capacity", Integer.class, IngestionPipeline.DEFAULT_QUEUE_CAPACITY));
+        coslineProperties.setMaxConnectionsPerHost(env.getProperty("spring.ai.vectorstore.cosline.max-connections-per-host", Integer.class, CoslineTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST));
+        coslineProperties.setConnectionIdleTimeoutSeconds(env.getProperty("spring.ai.vectorstore.cosline.connection-idle-timeout-seconds", Long.class, CoslineTransport.DEFAULT_CONNECTION_IDLE_TIMEOUT_SECONDS));
+        coslineProperties.setConnectTimeoutMillis(env.getProperty("spring.ai.vectorstore.cosline.connect-timeout-millis", Long.class, CoslineTransport.DEFAULT_CONNECT_TIMEOUT_MILLIS));
+        coslineProperties.setReadTimeoutMillis(env.getProperty("spring.ai.vectorstore.cosline.read-timeout-millis", Long.class, CoslineTransport.DEFAULT_READ_TIMEOUT_MILLIS));
+        coslineProperties.setHttp2Enabled(env.getProperty("spring.ai.vectorstore.cosline.http2-enabled", Boolean.class, false));
+        coslineProperties.setVectorEncoding(env.getProperty("spring.ai.vectorstore.cosline.vector-encoding", VectorEncoding.class, VectorEncoding.JSON));
+        coslineProperties.setRequestCompressionEnabled(env.getProperty("spring.ai.vectorstore.cosline.request-compression-enabled", Boolean.class, false));
+        coslineProperties.setCompressionLevel(env.getProperty("spring.ai.vectorstore.cosline.compression-level", Integer.class, PayloadCompression.DEFAULT_LEVEL));
+        coslineProperties.setCompressionThresholdBytes(env.getProperty("spring.ai.vectorstore.cosline.compression-threshold-bytes", Integer.class, PayloadCompression.DEFAULT_THRESHOLD_BYTES));
+        coslineProperties.setQueryEmbeddingCacheSize(env.getProperty("spring.ai.vectorstore.cosline.query-embedding-cache-size", Integer.class, QueryEmbeddingCache.DEFAULT_MAX_ENTRIES));
+        coslineProperties.setQueryEmbeddingCacheTtlSeconds(env.getProperty("spring.ai.vectorstore.cosline.query-embedding-cache-ttl-seconds", Long.class, QueryEmbeddingCache.DEFAULT_TTL_SECONDS));
+        coslineProperties.setSearchResultCacheSize(env.getProperty("spring.ai.vectorstore.cosline.search-result-cache-size", Integer.class, SearchResultCache.DEFAULT_MAX_ENTRIES));
+        coslineProperties.setSearchResultCacheTtlSeconds(env.getProperty("spring.ai.vectorstore.cosline.search-result-cache-ttl-seconds", Long.class, SearchResultCache.DEFAULT_TTL_SECONDS));
+        coslineProperties.setEmbeddingCacheDirectory(env.getProperty("spring.ai.vectorstore.cosline.embedding-cache-directory"));
+        coslineProperties.setEmbeddingCacheModel(env.getProperty("spring.ai.vectorstore.cosline.embedding-cache-model"));
+        // The collection is created by the init bean, once the shared transport bean exists
+    }
 
-        if(initializeSchema != null && initializeSchema.equalsIgnoreCase("true")) {
-            init();
-        } else {
-            logger.info("Properties not initialized for initialization = true");
-        }
+    @Bean
+    public CoslineTransport coslineTransport() {
+        return new CoslineTransport(coslineProperties);
+    }
+
+    // Lazy, so an application without an EmbeddingModel still starts as long as it does not ask for the store
+    @Bean
+    @Lazy
+    public CoslineVectorStore coslineVectorStore(EmbeddingModel embeddingModel, CoslineTransport coslineTransport,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        return new CoslineVectorStore(embeddingModel, coslineProperties,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), coslineTransport);
     }
 
     @Bean
-    public String init() {
+    public String init(CoslineTransport coslineTransport) {
         System.out.println("********************Initializing coslineConfig");
         logger.info("********************Initializing coslineConfig");
         String returnMessage = "Properties not created";
@@ -70,12 +134,9 @@ public class CoslineConfig {
             HttpHeaders headers = new HttpHeaders();
             headers.set("api-key", apiKey);
             headers.set("Content-Type", "application/json");
-            RestTemplate restTemplate = new RestTemplate();
+            RestTemplate restTemplate = coslineTransport.restTemplate();
             HttpEntity<String> entity = new HttpEntity<>(requestPayload, headers);
-            String url = String.format("http://%s:%d/api/v1/collections/%s",
-                    coslineProperties.getHost(),
-                    coslineProperties.getPort(),
-                    coslineProperties.getCollectionName());
+            String url = coslineTransport.collectionUrl();
             logger.info("URL: {}", url);
             ResponseEntity<String> response = restTemplate.exchange(
                     url,
@@ -0,0 +1,33 @@
+package org.cosline.client.distance;
+
+import org.cosline.client.model.Distance;
+
+/**
+ * Scores a document vector against a query vector for one {@link Distance} metric.
+ * <p>
+ * Search paths rank by {@link #score(float[], float[])}, where higher is always better,
+ * and compare it against {@code SearchRequest#getSimilarityThreshold()}. Similarity
+ * metrics (Cosine, Dot) use the raw value as the score. Distance metrics (Euclid,
+ * Manhattan), where lower is better, are mapped to {@code 1 / (1 + distance)} so a
+ * threshold {@code t} keeps documents within distance {@code 1/t - 1} of the query.
+ *
+ * @see DistanceFunctions#forDistance(Distance)
+ */
+public interface DistanceFunction {
+
+    Distance distance();
+
+    /**
+     * The raw metric value between the two vectors, as the server reports it.
+     */
+    float compare(float[] query, float[] document);
+
+    /**
+     * Maps a raw metric value onto a similarity score where higher is better.
+     */
+    float toScore(float raw);
+
+    default float score(float[] query, float[] document) {
+        return toScore(compare(query, document));
+    }
+}
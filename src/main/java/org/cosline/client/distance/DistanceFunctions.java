@@ -0,0 +1,105 @@
+package org.cosline.client.distance;
+
+import org.cosline.client.model.Distance;
+
+/**
+ * {@link DistanceFunction} implementations for every {@link Distance}, backed by a
+ * {@link VectorKernel}.
+ */
+public final class DistanceFunctions {
+
+    private DistanceFunctions() {
+    }
+
+    public static DistanceFunction forDistance(Distance distance) {
+        return forDistance(distance, VectorKernels.get());
+    }
+
+    public static DistanceFunction forDistance(Distance distance, VectorKernel kernel) {
+        if (distance == null) {
+            distance = Distance.Cosine;
+        }
+        return switch (distance) {
+            case Cosine -> new Cosine(kernel);
+            case Euclid -> new Euclid(kernel);
+            case Dot -> new Dot(kernel);
+            case Manhattan -> new Manhattan(kernel);
+        };
+    }
+
+    static float distanceToScore(float distance) {
+        return 1.0f / (1.0f + distance);
+    }
+
+    private record Cosine(VectorKernel kernel) implements DistanceFunction {
+
+        @Override
+        public Distance distance() {
+            return Distance.Cosine;
+        }
+
+        @Override
+        public float compare(float[] query, float[] document) {
+            return kernel.cosine(query, document);
+        }
+
+        @Override
+        public float toScore(float raw) {
+            return raw;
+        }
+    }
+
+    private record Dot(VectorKernel kernel) implements DistanceFunction {
+
+        @Override
+        public Distance distance() {
+            return Distance.Dot;
+        }
+
+        @Override
+        public float compare(float[] query, float[] document) {
+            return kernel.dotProduct(query, document);
+        }
+
+        @Override
+        public float toScore(float raw) {
+            return raw;
+        }
+    }
+
+    private record Euclid(VectorKernel kernel) implements DistanceFunction {
+
+        @Override
+        public Distance distance() {
+            return Distance.Euclid;
+        }
+
+        @Override
+        public float compare(float[] query, float[] document) {
+            return (float) Math.sqrt(kernel.squaredEuclidean(query, document));
+        }
+
+        @Override
+        public float toScore(float raw) {
+            return distanceToScore(raw);
+        }
+    }
+
+    private record Manhattan(VectorKernel kernel) implements DistanceFunction {
+
+        @Override
+        public Distance distance() {
+            return Distance.Manhattan;
+        }
+
+        @Override
+        public float compare(float[] query, float[] document) {
+            return kernel.manhattan(query, document);
+        }
+
+        @Override
+        public float toScore(float raw) {
+            return distanceToScore(raw);
+        }
+    }
+}
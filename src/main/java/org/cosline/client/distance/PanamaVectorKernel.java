@@ -0,0 +1,162 @@
+package org.cosline.client.distance;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * SIMD kernels on the JDK Vector API. Only instantiated by {@link VectorKernels} when the
+ * {@code jdk.incubator.vector} module has been added to the boot layer
+ * ({@code --add-modules jdk.incubator.vector}).
+ */
+final class PanamaVectorKernel implements VectorKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    PanamaVectorKernel() {
+        // Narrow species are slower than the scalar loop, let the factory fall back
+        if (SPECIES.length() < 4) {
+            throw new UnsupportedOperationException("Preferred float species is too narrow: " + SPECIES);
+        }
+    }
+
+    @Override
+    public float dotProduct(float[] vectorX, float[] vectorY) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(vectorX.length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector x = FloatVector.fromArray(SPECIES, vectorX, i);
+            FloatVector y = FloatVector.fromArray(SPECIES, vectorY, i);
+            acc = x.fma(y, acc);
+        }
+        float result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < vectorX.length; i++) {
+            result += vectorX[i] * vectorY[i];
+        }
+        return result;
+    }
+
+    @Override
+    public float squaredNorm(float[] vector) {
+        return dotProduct(vector, vector);
+    }
+
+    @Override
+    public float cosine(float[] vectorX, float[] vectorY) {
+        FloatVector dotAcc = FloatVector.zero(SPECIES);
+        FloatVector normXAcc = FloatVector.zero(SPECIES);
+        FloatVector normYAcc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(vectorX.length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector x = FloatVector.fromArray(SPECIES, vectorX, i);
+            FloatVector y = FloatVector.fromArray(SPECIES, vectorY, i);
+            dotAcc = x.fma(y, dotAcc);
+            normXAcc = x.fma(x, normXAcc);
+            normYAcc = y.fma(y, normYAcc);
+        }
+        float dot = dotAcc.reduceLanes(VectorOperators.ADD);
+        float normX = normXAcc.reduceLanes(VectorOperators.ADD);
+        float normY = normYAcc.reduceLanes(VectorOperators.ADD);
+        for (; i < vectorX.length; i++) {
+            float x = vectorX[i];
+            float y = vectorY[i];
+            dot += x * y;
+            normX += x * x;
+            normY += y * y;
+        }
+        return VectorKernels.cosineFromParts(dot, normX, normY);
+    }
+
+    @Override
+    public float squaredEuclidean(float[] vectorX, float[] vectorY) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(vectorX.length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector diff = FloatVector.fromArray(SPECIES, vectorX, i)
+                    .sub(FloatVector.fromArray(SPECIES, vectorY, i));
+            acc = diff.fma(diff, acc);
+        }
+        float result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < vectorX.length; i++) {
+            float diff = vectorX[i] - vectorY[i];
+            result += diff * diff;
+        }
+        return result;
+    }
+
+    @Override
+    public float manhattan(float[] vectorX, float[] vectorY) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(vectorX.length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector diff = FloatVector.fromArray(SPECIES, vectorX, i)
+                    .sub(FloatVector.fromArray(SPECIES, vectorY, i));
+            acc = acc.add(diff.abs());
+        }
+        float result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < vectorX.length; i++) {
+            result += Math.abs(vectorX[i] - vectorY[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public float dotProduct(float[] vectorX, MemorySegment segment, long offset) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(vectorX.length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector x = FloatVector.fromArray(SPECIES, vectorX, i);
+            FloatVector y = FloatVector.fromMemorySegment(SPECIES, segment, offset + (long) i * Float.BYTES, ByteOrder.nativeOrder());
+            acc = x.fma(y, acc);
+        }
+        float result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < vectorX.length; i++) {
+            result += vectorX[i] * segment.get(ValueLayout.JAVA_FLOAT, offset + (long) i * Float.BYTES);
+        }
+        return result;
+    }
+
+    @Override
+    public float squaredEuclidean(float[] vectorX, MemorySegment segment, long offset) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(vectorX.length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector diff = FloatVector.fromArray(SPECIES, vectorX, i)
+                    .sub(FloatVector.fromMemorySegment(SPECIES, segment, offset + (long) i * Float.BYTES, ByteOrder.nativeOrder()));
+            acc = diff.fma(diff, acc);
+        }
+        float result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < vectorX.length; i++) {
+            float diff = vectorX[i] - segment.get(ValueLayout.JAVA_FLOAT, offset + (long) i * Float.BYTES);
+            result += diff * diff;
+        }
+        return result;
+    }
+
+    @Override
+    public float manhattan(float[] vectorX, MemorySegment segment, long offset) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(vectorX.length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector diff = FloatVector.fromArray(SPECIES, vectorX, i)
+                    .sub(FloatVector.fromMemorySegment(SPECIES, segment, offset + (long) i * Float.BYTES, ByteOrder.nativeOrder()));
+            acc = acc.add(diff.abs());
+        }
+        float result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < vectorX.length; i++) {
+            result += Math.abs(vectorX[i] - segment.get(ValueLayout.JAVA_FLOAT, offset + (long) i * Float.BYTES));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package org.cosline.client.distance;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Plain Java loops. Used when the {@code jdk.incubator.vector} module is not available.
+ */
+public final class ScalarVectorKernel implements VectorKernel {
+
+    @Override
+    public float dotProduct(float[] vectorX, float[] vectorY) {
+        float result = 0;
+        for (int i = 0; i < vectorX.length; ++i) {
+            result += vectorX[i] * vectorY[i];
+        }
+        return result;
+    }
+
+    @Override
+    public float squaredNorm(float[] vector) {
+        return dotProduct(vector, vector);
+    }
+
+    @Override
+    public float cosine(float[] vectorX, float[] vectorY) {
+        float dot = 0;
+        float normX = 0;
+        float normY = 0;
+        for (int i = 0; i < vectorX.length; ++i) {
+            float x = vectorX[i];
+            float y = vectorY[i];
+            dot += x * y;
+            normX += x * x;
+            normY += y * y;
+        }
+        return VectorKernels.cosineFromParts(dot, normX, normY);
+    }
+
+    @Override
+    public float squaredEuclidean(float[] vectorX, float[] vectorY) {
+        float result = 0;
+        for (int i = 0; i < vectorX.length; ++i) {
+            float diff = vectorX[i] - vectorY[i];
+            result += diff * diff;
+        }
+        return result;
+    }
+
+    @Override
+    public float manhattan(float[] vectorX, float[] vectorY) {
+        float result = 0;
+        for (int i = 0; i < vectorX.length; ++i) {
+            result += Math.abs(vectorX[i] - vectorY[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public float dotProduct(float[] vectorX, MemorySegment segment, long offset) {
+        float result = 0;
+        for (int i = 0; i < vectorX.length; ++i) {
+            result += vectorX[i] * segment.get(ValueLayout.JAVA_FLOAT, offset + (long) i * Float.BYTES);
+        }
+        return result;
+    }
+
+    @Override
+    public float squaredEuclidean(float[] vectorX, MemorySegment segment, long offset) {
+        float result = 0;
+        for (int i = 0; i < vectorX.length; ++i) {
+            float diff = vectorX[i] - segment.get(ValueLayout.JAVA_FLOAT, offset + (long) i * Float.BYTES);
+            result += diff * diff;
+        }
+        return result;
+    }
+
+    @Override
+    public float manhattan(float[] vectorX, MemorySegment segment, long offset) {
+        float result = 0;
+        for (int i = 0; i < vectorX.length; ++i) {
+            result += Math.abs(vectorX[i] - segment.get(ValueLayout.JAVA_FLOAT, offset + (long) i * Float.BYTES));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,46 @@
+package org.cosline.client.distance;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Low-level float vector arithmetic used by the similarity search paths.
+ * <p>
+ * Implementations must agree with {@link ScalarVectorKernel} up to floating point
+ * rounding. Callers are responsible for checking that both vectors have the same length.
+ * <p>
+ * The {@link MemorySegment} overloads read the second vector as {@code vectorX.length}
+ * native-order floats starting at byte {@code offset}, so off-heap rows are scored in
+ * place without copying them onto the heap.
+ *
+ * @see VectorKernels#get()
+ */
+public interface VectorKernel {
+
+    float dotProduct(float[] vectorX, float[] vectorY);
+
+    float squaredNorm(float[] vector);
+
+    /**
+     * Cosine similarity computed in a single pass that accumulates the dot product and
+     * both squared norms together.
+     *
+     * @throws IllegalArgumentException if either vector has zero norm
+     */
+    float cosine(float[] vectorX, float[] vectorY);
+
+    /**
+     * Squared L2 distance. Callers that need the Euclidean distance take the square root.
+     */
+    float squaredEuclidean(float[] vectorX, float[] vectorY);
+
+    /**
+     * L1 distance.
+     */
+    float manhattan(float[] vectorX, float[] vectorY);
+
+    float dotProduct(float[] vectorX, MemorySegment segment, long offset);
+
+    float squaredEuclidean(float[] vectorX, MemorySegment segment, long offset);
+
+    float manhattan(float[] vectorX, MemorySegment segment, long offset);
+}
@@ -0,0 +1,59 @@
+package org.cosline.client.distance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Picks the fastest {@link VectorKernel} available on this JVM.
+ * <p>
+ * The SIMD implementation is used when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}; otherwise, or when the system property
+ * {@code cosline.vector.scalar=true} is set, the scalar loops are used.
+ */
+public final class VectorKernels {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorKernels.class);
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final VectorKernel SCALAR = new ScalarVectorKernel();
+    private static final VectorKernel DEFAULT = load();
+
+    private VectorKernels() {
+    }
+
+    public static VectorKernel get() {
+        return DEFAULT;
+    }
+
+    public static VectorKernel scalar() {
+        return SCALAR;
+    }
+
+    private static VectorKernel load() {
+        if (Boolean.getBoolean("cosline.vector.scalar")) {
+            logger.info("Using scalar vector kernels (cosline.vector.scalar=true)");
+            return SCALAR;
+        }
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            logger.info("Module {} not present, using scalar vector kernels", VECTOR_MODULE);
+            return SCALAR;
+        }
+        try {
+            VectorKernel kernel = (VectorKernel) Class.forName(VectorKernels.class.getPackageName() + ".PanamaVectorKernel")
+                    .getDeclaredConstructor()
+                    .newInstance();
+            logger.info("Using SIMD vector kernels");
+            return kernel;
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            logger.warn("SIMD vector kernels unavailable, using scalar kernels: {}", e.toString());
+            return SCALAR;
+        }
+    }
+
+    static float cosineFromParts(float dot, float normX, float normY) {
+        if (normX == 0 || normY == 0) {
+            throw new IllegalArgumentException("Vectors cannot have zero norm");
+        }
+        return (float) (dot / (Math.sqrt(normX) * Math.sqrt(normY)));
+    }
+}
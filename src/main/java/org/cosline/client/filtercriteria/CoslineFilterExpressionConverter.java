@@ -3,87 +3,108 @@ package org.cosline.client.filtercriteria;
 import org.springframework.ai.vectorstore.filter.Filter;
 import org.springframework.ai.vectorstore.filter.converter.AbstractFilterExpressionConverter;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts Spring AI {@link Filter.Expression} trees into the server's query parameters,
+ * one {@code metadata.<key>.<op>=<value>} parameter per comparison.
+ * <p>
+ * Keys and values are percent-encoded as UTF-8, so values may hold spaces, {@code &},
+ * {@code =} and other reserved characters; the commas separating IN and NIN values are
+ * the only ones left unencoded. Surrounding quotes are dropped from keys. The result is a
+ * finished query string and must not be encoded again, so pass it on as a
+ * {@link java.net.URI} rather than as a URI template.
+ * <p>
+ * The converter holds no per-call state and is safe to share between threads. Converted
+ * query strings are cached per expression; expressions are records, so equal trees built
+ * separately share one cache entry.
+ */
 public class CoslineFilterExpressionConverter extends AbstractFilterExpressionConverter {
 
-    private StringBuilder queryParams = new StringBuilder();
-    private boolean isFirstParam = true;
+    static final int MAX_CACHED_EXPRESSIONS = 1024;
+
+    private final Map<Filter.Expression, String> cache = new ConcurrentHashMap<>();
 
     public String convertToQueryParams(Filter.Expression expression) {
-        convert(expression, queryParams);
-        return queryParams.toString();
+        String queryParams = cache.get(expression);
+        if (queryParams == null) {
+            StringBuilder context = new StringBuilder();
+            doExpression(expression, context);
+            queryParams = context.toString();
+            if (cache.size() >= MAX_CACHED_EXPRESSIONS) {
+                cache.clear();
+            }
+            cache.put(expression, queryParams);
+        }
+        return queryParams;
     }
 
-    protected void convert(Filter.Expression expression, StringBuilder context) {
-        if (expression.type() == Filter.ExpressionType.AND ||
-                expression.type() == Filter.ExpressionType.OR) {
-            // Handle nested expressions
-            Filter.Expression left = (Filter.Expression) expression.left();
-            Filter.Expression right = (Filter.Expression) expression.right();
+    @Override
+    public String convertExpression(Filter.Expression expression) {
+        return convertToQueryParams(expression);
+    }
 
-            convert(left, context);
-            convert(right, context);
-        } else {
-            // Handle leaf expressions
-            doExpression(expression, context);
-        }
+    int cacheSize() {
+        return cache.size();
     }
 
     @Override
     protected void doExpression(Filter.Expression expression, StringBuilder context) {
-        if (expression.type() == Filter.ExpressionType.IN) {
-            handleIn(expression);
-        } else if (expression.type() == Filter.ExpressionType.NIN) {
-            handleNotIn(expression);
-        } else {
-            if (!isFirstParam) {
-                queryParams.append("&");
+        switch (expression.type()) {
+            // Query parameters cannot express OR, so both operands are sent as separate parameters
+            case AND, OR -> {
+                appendOperand(expression.left(), context);
+                appendOperand(expression.right(), context);
+            }
+            case NOT -> {
+                StringBuilder negated = new StringBuilder();
+                appendOperand(expression.left(), negated);
+                startParameter(context);
+                context.append("metadata.").append(negated).append(".not=");
+            }
+            case IN -> appendList(expression, ".in=", context);
+            case NIN -> appendList(expression, ".nin=", context);
+            default -> {
+                startParameter(context);
+                context.append("metadata.");
+                doKey((Filter.Key) expression.left(), context);
+                context.append(getOperationSymbol(expression));
+                doValue((Filter.Value) expression.right(), context);
             }
-            queryParams.append("metadata.");
-            convertOperand(expression.left(), queryParams);
-            queryParams.append(getOperationSymbol(expression));
-            convertOperand(expression.right(), queryParams);
-            isFirstParam = false;
         }
     }
 
-    private void handleIn(Filter.Expression expression) {
-        if (!isFirstParam) {
-            queryParams.append("&");
-        }
-        Filter.Key key = (Filter.Key) expression.left();
-        Filter.Value right = (Filter.Value) expression.right();
-        Object value = right.value();
-
-        if (!(value instanceof List<?> values)) {
-            throw new IllegalArgumentException("Expected a List, but got: " + value.getClass().getSimpleName());
+    private void appendOperand(Filter.Operand operand, StringBuilder context) {
+        if (operand instanceof Filter.Group group) {
+            doExpression(group.content(), context);
+        } else if (operand instanceof Filter.Expression expression) {
+            doExpression(expression, context);
+        } else {
+            throw new IllegalArgumentException("Expected an expression, but got: " + operand);
         }
-
-        queryParams.append("metadata.")
-                .append(key.key())
-                .append(".in=")
-                .append(String.join(",", values.stream().map(String::valueOf).toList()));
-        isFirstParam = false;
     }
 
-    private void handleNotIn(Filter.Expression expression) {
-        if (!isFirstParam) {
-            queryParams.append("&");
-        }
+    private void appendList(Filter.Expression expression, String symbol, StringBuilder context) {
         Filter.Key key = (Filter.Key) expression.left();
-        Filter.Value right = (Filter.Value) expression.right();
-        Object value = right.value();
-
+        Object value = ((Filter.Value) expression.right()).value();
         if (!(value instanceof List<?> values)) {
             throw new IllegalArgumentException("Expected a List, but got: " + value.getClass().getSimpleName());
         }
+        startParameter(context);
+        context.append("metadata.");
+        doKey(key, context);
+        context.append(symbol);
+        appendValues(values, context);
+    }
 
-        queryParams.append("metadata.")
-                .append(key.key())
-                .append(".nin=")
-                .append(String.join(",", values.stream().map(String::valueOf).toList()));
-        isFirstParam = false;
+    private static void startParameter(StringBuilder context) {
+        if (!context.isEmpty()) {
+            context.append('&');
+        }
     }
 
     private String getOperationSymbol(Filter.Expression exp) {
@@ -94,14 +115,13 @@ public class CoslineFilterExpressionConverter extends AbstractFilterExpressionCo
             case LTE -> ".lte=";
             case GT -> ".gt=";
             case GTE -> ".gte=";
-            case NOT -> ".not=";
             default -> throw new RuntimeException("Not supported expression type: " + exp.type());
         };
     }
 
     @Override
     protected void doKey(Filter.Key key, StringBuilder context) {
-        context.append(key.key());
+        context.append(encode(MetadataPredicateCompiler.unquote(key.key())));
     }
 
     @Override
@@ -116,17 +136,24 @@ public class CoslineFilterExpressionConverter extends AbstractFilterExpressionCo
 
     @Override
     protected void doValue(Filter.Value value, StringBuilder context) {
-        Object val = value.value();
-        if (val instanceof String) {
-            context.append(val);
-        } else if (val instanceof Number) {
-            context.append(val);
-        } else if (val instanceof Boolean) {
-            context.append(val);
-        } else if (val instanceof List<?>) {
-            context.append(String.join(",", ((List<?>) val).stream().map(String::valueOf).toList()));
+        if (value.value() instanceof List<?> values) {
+            appendValues(values, context);
         } else {
-            context.append(val);
+            context.append(encode(String.valueOf(value.value())));
         }
     }
-}
\ No newline at end of file
+
+    private static void appendValues(List<?> values, StringBuilder context) {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                context.append(',');
+            }
+            context.append(encode(String.valueOf(values.get(i))));
+        }
+    }
+
+    // URLEncoder writes form encoding; a space is sent as %20 so it reads the same under any URI parser
+    private static String encode(String text) {
+        return URLEncoder.encode(text, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -0,0 +1,128 @@
+package org.cosline.client.filtercriteria;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Compiles Spring AI {@link Filter.Expression} trees into predicates over document
+ * metadata, for filtering the local store.
+ * <p>
+ * Compilation resolves keys and constant values once: numbers are widened to
+ * {@code double} so {@code 3} matches {@code 3.0}, and IN/NIN lists become hash sets.
+ * Ordering comparisons apply to two numbers or two strings and are false otherwise.
+ * A missing key fails every comparison except NE and NIN.
+ * <p>
+ * Compiled predicates are cached per expression. Expressions are records, so equal
+ * trees built separately share one cache entry.
+ */
+public class MetadataPredicateCompiler {
+
+    static final int MAX_CACHED_EXPRESSIONS = 1024;
+    // Result of comparing values that cannot be ordered; fails every ordering comparison
+    private static final int INCOMPARABLE = 2;
+
+    private final Map<Filter.Expression, Predicate<Map<String, Object>>> cache = new ConcurrentHashMap<>();
+
+    public Predicate<Map<String, Object>> compile(Filter.Expression expression) {
+        Predicate<Map<String, Object>> predicate = cache.get(expression);
+        if (predicate == null) {
+            predicate = compileExpression(expression);
+            if (cache.size() >= MAX_CACHED_EXPRESSIONS) {
+                cache.clear();
+            }
+            cache.put(expression, predicate);
+        }
+        return predicate;
+    }
+
+    int cacheSize() {
+        return cache.size();
+    }
+
+    private Predicate<Map<String, Object>> compileOperand(Filter.Operand operand) {
+        if (operand instanceof Filter.Expression expression) {
+            return compileExpression(expression);
+        }
+        if (operand instanceof Filter.Group group) {
+            return compileExpression(group.content());
+        }
+        throw new IllegalArgumentException("Expected an expression, but got: " + operand);
+    }
+
+    private Predicate<Map<String, Object>> compileExpression(Filter.Expression expression) {
+        return switch (expression.type()) {
+            case AND -> compileOperand(expression.left()).and(compileOperand(expression.right()));
+            case OR -> compileOperand(expression.left()).or(compileOperand(expression.right()));
+            case NOT -> compileOperand(expression.left()).negate();
+            case EQ, NE, LT, LTE, GT, GTE, IN, NIN -> compileComparison(expression);
+        };
+    }
+
+    private Predicate<Map<String, Object>> compileComparison(Filter.Expression expression) {
+        if (!(expression.left() instanceof Filter.Key key) || !(expression.right() instanceof Filter.Value value)) {
+            throw new IllegalArgumentException("Expected a key and a value in: " + expression);
+        }
+        String name = unquote(key.key());
+        Object constant = normalize(value.value());
+        return switch (expression.type()) {
+            case EQ -> metadata -> Objects.equals(normalize(metadata.get(name)), constant);
+            case NE -> metadata -> !Objects.equals(normalize(metadata.get(name)), constant);
+            case LT -> metadata -> compare(metadata.get(name), constant) < 0;
+            case LTE -> metadata -> compare(metadata.get(name), constant) <= 0;
+            case GT -> metadata -> compare(metadata.get(name), constant) == 1;
+            case GTE -> metadata -> {
+                int result = compare(metadata.get(name), constant);
+                return result == 0 || result == 1;
+            };
+            case IN -> {
+                Set<Object> values = valueSet(value);
+                yield metadata -> values.contains(normalize(metadata.get(name)));
+            }
+            case NIN -> {
+                Set<Object> values = valueSet(value);
+                yield metadata -> !values.contains(normalize(metadata.get(name)));
+            }
+            default -> throw new IllegalArgumentException("Not supported expression type: " + expression.type());
+        };
+    }
+
+    private static int compare(Object actual, Object constant) {
+        Object normalized = normalize(actual);
+        if (normalized instanceof Double number && constant instanceof Double bound) {
+            return Integer.signum(Double.compare(number, bound));
+        }
+        if (normalized instanceof String text && constant instanceof String bound) {
+            return Integer.signum(text.compareTo(bound));
+        }
+        return INCOMPARABLE;
+    }
+
+    private static Set<Object> valueSet(Filter.Value value) {
+        if (!(value.value() instanceof List<?> values)) {
+            throw new IllegalArgumentException("Expected a List, but got: " + value.value().getClass().getSimpleName());
+        }
+        Set<Object> set = new HashSet<>();
+        for (Object element : values) {
+            set.add(normalize(element));
+        }
+        return set;
+    }
+
+    private static Object normalize(Object value) {
+        return value instanceof Number number ? (Object) number.doubleValue() : value;
+    }
+
+    static String unquote(String key) {
+        if (key.length() > 1 && (key.startsWith("\"") && key.endsWith("\"") || key.startsWith("'") && key.endsWith("'"))) {
+            return key.substring(1, key.length() - 1);
+        }
+        return key;
+    }
+}
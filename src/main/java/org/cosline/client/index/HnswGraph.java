@@ -0,0 +1,287 @@
+package org.cosline.client.index;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarchical Navigable Small World graph over the ordinals of a {@link VectorSource}.
+ * <p>
+ * Follows Malkov and Yashunin (2016): every node gets a random top layer, upper layers
+ * are searched greedily to find an entry point and layer 0 is searched with a candidate
+ * list of size {@code ef}. Neighbours are picked with the diversity heuristic and the
+ * best pruned candidates fill the remaining slots.
+ * <p>
+ * Inserts may run concurrently. Each node's adjacency lists are guarded by the node's
+ * monitor, and the node table and entry point are only replaced under a graph-wide lock.
+ *
+ * @see <a href="https://arxiv.org/abs/1603.09320">Efficient and robust approximate nearest neighbor search using HNSW graphs</a>
+ */
+public class HnswGraph {
+
+    private final VectorSource vectors;
+    private final HnswParameters parameters;
+    private final double levelMultiplier;
+    private final Object lock = new Object();
+    private volatile Node[] nodes = new Node[1024];
+    private volatile EntryPoint entryPoint;
+
+    public HnswGraph(VectorSource vectors, HnswParameters parameters) {
+        this.vectors = vectors;
+        this.parameters = parameters;
+        this.levelMultiplier = 1.0 / Math.log(parameters.m());
+    }
+
+    public HnswParameters parameters() {
+        return parameters;
+    }
+
+    /**
+     * Receives search hits in no particular order.
+     */
+    @FunctionalInterface
+    public interface HitConsumer {
+        void accept(int ordinal, float score);
+    }
+
+    /**
+     * Links the ordinal into the graph. Its vector must already be readable from the source.
+     */
+    public void insert(int ordinal) {
+        int level = randomLevel();
+        Node node = new Node(level, parameters.m());
+        EntryPoint entry;
+        synchronized (lock) {
+            if (ordinal >= nodes.length) {
+                nodes = Arrays.copyOf(nodes, Math.max(nodes.length * 2, ordinal + 1));
+            }
+            nodes[ordinal] = node;
+            entry = entryPoint;
+            if (entry == null) {
+                entryPoint = new EntryPoint(ordinal, level);
+                return;
+            }
+        }
+
+        float[] vector = vectors.vector(ordinal);
+        VectorSource.OrdinalScorer scorer = vectors.scorer(vector);
+        long[] entryPoints = {LongHeap.encode(scorer.score(entry.node), entry.node)};
+        for (int layer = entry.level; layer > level; layer--) {
+            entryPoints = new long[]{greedySearch(scorer, entryPoints[0], layer)};
+        }
+        for (int layer = Math.min(level, entry.level); layer >= 0; layer--) {
+            long[] candidates = searchLayer(scorer, entryPoints, parameters.efConstruction(), layer,
+                    candidate -> candidate != ordinal).toArray();
+            if (candidates.length == 0) {
+                continue;
+            }
+            int[] selected = selectNeighbors(candidates, maxConnections(layer));
+            synchronized (node) {
+                node.neighbors[layer] = Arrays.copyOf(selected, maxConnections(layer));
+                node.counts[layer] = selected.length;
+            }
+            for (int neighbor : selected) {
+                link(neighbor, ordinal, layer);
+            }
+            entryPoints = candidates;
+        }
+
+        if (level > entry.level) {
+            synchronized (lock) {
+                if (level > entryPoint.level) {
+                    entryPoint = new EntryPoint(ordinal, level);
+                }
+            }
+        }
+    }
+
+    /**
+     * Approximate nearest-neighbour search. Every ordinal passing {@code accept} among the
+     * best {@code ef} reached on layer 0 is handed to {@code hits}; rejected ordinals are
+     * still traversed.
+     */
+    public void search(VectorSource.OrdinalScorer scorer, int ef, IntPredicate accept, HitConsumer hits) {
+        EntryPoint entry = entryPoint;
+        if (entry == null) {
+            return;
+        }
+        long best = LongHeap.encode(scorer.score(entry.node), entry.node);
+        for (int layer = entry.level; layer > 0; layer--) {
+            best = greedySearch(scorer, best, layer);
+        }
+        LongHeap results = searchLayer(scorer, new long[]{best}, ef, 0, accept);
+        while (!results.isEmpty()) {
+            long hit = results.pop();
+            hits.accept(LongHeap.ordinal(hit), LongHeap.score(hit));
+        }
+    }
+
+    public int size() {
+        Node[] snapshot = nodes;
+        int count = 0;
+        for (Node node : snapshot) {
+            if (node != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int randomLevel() {
+        double uniform = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return (int) (-Math.log(uniform) * levelMultiplier);
+    }
+
+    private int maxConnections(int layer) {
+        return layer == 0 ? 2 * parameters.m() : parameters.m();
+    }
+
+    private long greedySearch(VectorSource.OrdinalScorer scorer, long start, int layer) {
+        long best = start;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : neighbors(LongHeap.ordinal(best), layer)) {
+                long candidate = LongHeap.encode(scorer.score(neighbor), neighbor);
+                if (candidate > best) {
+                    best = candidate;
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Returns a min-heap holding the best ef accepted nodes reached from the entry points
+    private LongHeap searchLayer(VectorSource.OrdinalScorer scorer, long[] entryPoints, int ef, int layer,
+                                 IntPredicate accept) {
+        BitSet visited = new BitSet(nodes.length);
+        LongHeap candidates = new LongHeap(ef * 2);
+        LongHeap results = new LongHeap(ef + 1);
+        for (long entry : entryPoints) {
+            visited.set(LongHeap.ordinal(entry));
+            candidates.push(~entry);
+            offer(results, entry, ef, accept);
+        }
+        while (!candidates.isEmpty()) {
+            long current = ~candidates.pop();
+            if (results.size() >= ef && current < results.peek()) {
+                break;
+            }
+            for (int neighbor : neighbors(LongHeap.ordinal(current), layer)) {
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                long candidate = LongHeap.encode(scorer.score(neighbor), neighbor);
+                if (results.size() < ef || candidate > results.peek()) {
+                    candidates.push(~candidate);
+                    offer(results, candidate, ef, accept);
+                }
+            }
+        }
+        return results;
+    }
+
+    private static void offer(LongHeap results, long candidate, int ef, IntPredicate accept) {
+        if (accept != null && !accept.test(LongHeap.ordinal(candidate))) {
+            return;
+        }
+        results.push(candidate);
+        if (results.size() > ef) {
+            results.pop();
+        }
+    }
+
+    /**
+     * Diversity heuristic: a candidate is kept only if it is closer to the base vector than
+     * to every neighbour selected so far. Pruned candidates fill any remaining slots.
+     */
+    private int[] selectNeighbors(long[] candidates, int max) {
+        long[] sorted = candidates.clone();
+        Arrays.sort(sorted);
+        int[] selected = new int[Math.min(max, sorted.length)];
+        int count = 0;
+        int[] pruned = new int[sorted.length];
+        int prunedCount = 0;
+        for (int i = sorted.length - 1; i >= 0 && count < selected.length; i--) {
+            int candidate = LongHeap.ordinal(sorted[i]);
+            float scoreToBase = LongHeap.score(sorted[i]);
+            VectorSource.OrdinalScorer candidateScorer = count > 0 ? vectors.scorer(vectors.vector(candidate)) : null;
+            boolean diverse = true;
+            for (int j = 0; j < count; j++) {
+                if (candidateScorer.score(selected[j]) > scoreToBase) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidate;
+            } else {
+                pruned[prunedCount++] = candidate;
+            }
+        }
+        for (int i = 0; i < prunedCount && count < selected.length; i++) {
+            selected[count++] = pruned[i];
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    private void link(int from, int to, int layer) {
+        Node node = nodes[from];
+        int max = maxConnections(layer);
+        synchronized (node) {
+            int count = node.counts[layer];
+            for (int i = 0; i < count; i++) {
+                if (node.neighbors[layer][i] == to) {
+                    return;
+                }
+            }
+            if (count < max) {
+                node.neighbors[layer][count] = to;
+                node.counts[layer] = count + 1;
+                return;
+            }
+            VectorSource.OrdinalScorer scorer = vectors.scorer(vectors.vector(from));
+            long[] candidates = new long[count + 1];
+            for (int i = 0; i < count; i++) {
+                int neighbor = node.neighbors[layer][i];
+                candidates[i] = LongHeap.encode(scorer.score(neighbor), neighbor);
+            }
+            candidates[count] = LongHeap.encode(scorer.score(to), to);
+            int[] selected = selectNeighbors(candidates, max);
+            System.arraycopy(selected, 0, node.neighbors[layer], 0, selected.length);
+            node.counts[layer] = selected.length;
+        }
+    }
+
+    private int[] neighbors(int ordinal, int layer) {
+        Node node = nodes[ordinal];
+        synchronized (node) {
+            if (layer > node.level) {
+                return new int[0];
+            }
+            return Arrays.copyOf(node.neighbors[layer], node.counts[layer]);
+        }
+    }
+
+    private record EntryPoint(int node, int level) {
+    }
+
+    private static final class Node {
+
+        final int level;
+        final int[][] neighbors;
+        final int[] counts;
+
+        Node(int level, int m) {
+            this.level = level;
+            this.neighbors = new int[level + 1][];
+            this.counts = new int[level + 1];
+            for (int layer = 0; layer <= level; layer++) {
+                neighbors[layer] = new int[layer == 0 ? 2 * m : m];
+            }
+        }
+    }
+}
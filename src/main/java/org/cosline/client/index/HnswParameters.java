@@ -0,0 +1,28 @@
+package org.cosline.client.index;
+
+/**
+ * Construction and search parameters of an {@link HnswGraph}.
+ *
+ * @param m              maximum number of links per node on the upper layers; layer 0 allows {@code 2 * m}
+ * @param efConstruction size of the candidate list while inserting, trades build time for graph quality
+ * @param efSearch       default size of the candidate list while searching, trades latency for recall
+ */
+public record HnswParameters(int m, int efConstruction, int efSearch) {
+
+    public static final int DEFAULT_M = 16;
+    public static final int DEFAULT_EF_CONSTRUCTION = 200;
+    public static final int DEFAULT_EF_SEARCH = 64;
+
+    public HnswParameters {
+        if (m < 2) {
+            throw new IllegalArgumentException("m must be at least 2");
+        }
+        if (efConstruction < 1 || efSearch < 1) {
+            throw new IllegalArgumentException("ef parameters must be positive");
+        }
+    }
+
+    public static HnswParameters defaults() {
+        return new HnswParameters(DEFAULT_M, DEFAULT_EF_CONSTRUCTION, DEFAULT_EF_SEARCH);
+    }
+}
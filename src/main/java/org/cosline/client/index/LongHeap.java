@@ -0,0 +1,99 @@
+package org.cosline.client.index;
+
+import java.util.Arrays;
+
+/**
+ * Growable binary min-heap of primitive longs.
+ * <p>
+ * Graph searches pack a (score, ordinal) pair into one long with {@link #encode(float, int)}
+ * so that long order equals score order; pushing {@code ~encoded} turns the heap into a
+ * max-heap.
+ */
+final class LongHeap {
+
+    private long[] heap;
+    private int size;
+
+    LongHeap(int initialCapacity) {
+        this.heap = new long[Math.max(1, initialCapacity)];
+    }
+
+    static long encode(float score, int ordinal) {
+        return ((long) sortableBits(score) << 32) | (ordinal & 0xffffffffL);
+    }
+
+    static float score(long encoded) {
+        return Float.intBitsToFloat(sortableBits((int) (encoded >> 32)));
+    }
+
+    static int ordinal(long encoded) {
+        return (int) encoded;
+    }
+
+    // Maps float bits to an int with the same ordering; the transform is its own inverse
+    private static int sortableBits(float value) {
+        return sortableBits(Float.floatToIntBits(value));
+    }
+
+    private static int sortableBits(int bits) {
+        return bits ^ ((bits >> 31) & 0x7fffffff);
+    }
+
+    void push(long value) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int i = size++;
+        heap[i] = value;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= heap[i]) {
+                break;
+            }
+            long tmp = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = tmp;
+            i = parent;
+        }
+    }
+
+    long peek() {
+        return heap[0];
+    }
+
+    long pop() {
+        long top = heap[0];
+        heap[0] = heap[--size];
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int smallest = left + 1 < size && heap[left + 1] < heap[left] ? left + 1 : left;
+            if (heap[i] <= heap[smallest]) {
+                break;
+            }
+            long tmp = heap[i];
+            heap[i] = heap[smallest];
+            heap[smallest] = tmp;
+            i = smallest;
+        }
+        return top;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Copies the heap content in no particular order.
+     */
+    long[] toArray() {
+        return Arrays.copyOf(heap, size);
+    }
+}
@@ -0,0 +1,186 @@
+package org.cosline.client.index;
+
+import org.cosline.client.model.Distance;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Product quantization codec: a vector is split into {@code m} contiguous subspaces and
+ * each subspace is replaced by the index of its nearest centroid in a 256-entry
+ * codebook, so a vector is stored as {@code m} bytes.
+ * <p>
+ * Queries are scored with asymmetric distance computation (ADC): the query stays
+ * exact, a per-query table holds the partial metric between every query subspace and
+ * every centroid, and a stored code is scored with {@code m} table lookups.
+ *
+ * @see <a href="https://ieeexplore.ieee.org/document/5432202">Product Quantization for Nearest Neighbor Search</a>
+ */
+public final class ProductQuantizer {
+
+    public static final int CENTROIDS = 256;
+
+    private final int dimension;
+    private final int[] offsets;
+    private final int centroids;
+    private final float[][] codebooks;
+
+    private ProductQuantizer(int dimension, int[] offsets, int centroids, float[][] codebooks) {
+        this.dimension = dimension;
+        this.offsets = offsets;
+        this.centroids = centroids;
+        this.codebooks = codebooks;
+    }
+
+    /**
+     * Trains one codebook per subspace with Lloyd's k-means on the sample. Subspaces are
+     * trained in parallel. When the dimension is not a multiple of {@code subspaces} the
+     * first subspaces get one extra component.
+     */
+    public static ProductQuantizer train(float[][] sample, int subspaces, int iterations, long seed) {
+        if (sample.length == 0) {
+            throw new IllegalArgumentException("Training sample must not be empty");
+        }
+        int dimension = sample[0].length;
+        if (subspaces < 1 || subspaces > dimension) {
+            throw new IllegalArgumentException("subspaces must be between 1 and the vector dimension");
+        }
+        int[] offsets = new int[subspaces + 1];
+        for (int j = 0; j < subspaces; j++) {
+            offsets[j + 1] = offsets[j] + dimension / subspaces + (j < dimension % subspaces ? 1 : 0);
+        }
+        int centroids = Math.min(CENTROIDS, sample.length);
+        float[][] codebooks = new float[subspaces][];
+        IntStream.range(0, subspaces).parallel().forEach(j ->
+                codebooks[j] = kMeans(sample, offsets[j], offsets[j + 1] - offsets[j], centroids, iterations, seed + j));
+        return new ProductQuantizer(dimension, offsets, centroids, codebooks);
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Bytes per encoded vector.
+     */
+    public int codeSize() {
+        return codebooks.length;
+    }
+
+    public void encode(float[] vector, byte[] codes, int offset) {
+        for (int j = 0; j < codebooks.length; j++) {
+            int start = offsets[j];
+            int width = offsets[j + 1] - start;
+            codes[offset + j] = (byte) nearestCentroid(codebooks[j], centroids, vector, start, width);
+        }
+    }
+
+    public float[] decode(byte[] codes, int offset) {
+        float[] vector = new float[dimension];
+        for (int j = 0; j < codebooks.length; j++) {
+            int start = offsets[j];
+            int width = offsets[j + 1] - start;
+            int centroid = codes[offset + j] & 0xff;
+            System.arraycopy(codebooks[j], centroid * width, vector, start, width);
+        }
+        return vector;
+    }
+
+    /**
+     * Builds the ADC table for one query: entry {@code j * 256 + c} holds the partial
+     * metric between query subspace {@code j} and centroid {@code c}. Cosine and Dot use
+     * the inner product, Euclid the squared L2 distance and Manhattan the L1 distance.
+     */
+    public float[] distanceTable(float[] query, Distance distance) {
+        float[] table = new float[codebooks.length * CENTROIDS];
+        for (int j = 0; j < codebooks.length; j++) {
+            int start = offsets[j];
+            int width = offsets[j + 1] - start;
+            float[] codebook = codebooks[j];
+            for (int c = 0; c < centroids; c++) {
+                int base = c * width;
+                float partial = 0;
+                for (int d = 0; d < width; d++) {
+                    float q = query[start + d];
+                    float x = codebook[base + d];
+                    partial += switch (distance) {
+                        case Cosine, Dot -> q * x;
+                        case Euclid -> (q - x) * (q - x);
+                        case Manhattan -> Math.abs(q - x);
+                    };
+                }
+                table[j * CENTROIDS + c] = partial;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Approximate metric between the query of {@code table} and a stored code.
+     */
+    public float lookup(float[] table, byte[] codes, int offset) {
+        float result = 0;
+        for (int j = 0; j < codebooks.length; j++) {
+            result += table[j * CENTROIDS + (codes[offset + j] & 0xff)];
+        }
+        return result;
+    }
+
+    private static float[] kMeans(float[][] sample, int start, int width, int k, int iterations, long seed) {
+        Random random = new Random(seed);
+        float[] centroids = new float[k * width];
+        // Seed with distinct random sample points
+        int[] order = IntStream.range(0, sample.length).toArray();
+        for (int c = 0; c < k; c++) {
+            int pick = c + random.nextInt(order.length - c);
+            int tmp = order[c];
+            order[c] = order[pick];
+            order[pick] = tmp;
+            System.arraycopy(sample[order[c]], start, centroids, c * width, width);
+        }
+
+        float[] sums = new float[k * width];
+        int[] counts = new int[k];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            Arrays.fill(sums, 0);
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < sample.length; i++) {
+                int nearest = nearestCentroid(centroids, k, sample[i], start, width);
+                counts[nearest]++;
+                for (int d = 0; d < width; d++) {
+                    sums[nearest * width + d] += sample[i][start + d];
+                }
+            }
+            for (int c = 0; c < k; c++) {
+                if (counts[c] == 0) {
+                    // Re-seed empty clusters from a random point
+                    System.arraycopy(sample[random.nextInt(sample.length)], start, centroids, c * width, width);
+                    continue;
+                }
+                for (int d = 0; d < width; d++) {
+                    centroids[c * width + d] = sums[c * width + d] / counts[c];
+                }
+            }
+        }
+        return centroids;
+    }
+
+    private static int nearestCentroid(float[] codebook, int k, float[] vector, int start, int width) {
+        int best = 0;
+        float bestDistance = Float.MAX_VALUE;
+        for (int c = 0; c < k; c++) {
+            int base = c * width;
+            float distance = 0;
+            for (int d = 0; d < width; d++) {
+                float diff = vector[start + d] - codebook[base + d];
+                distance += diff * diff;
+            }
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+}
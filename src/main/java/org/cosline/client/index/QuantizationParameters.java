@@ -0,0 +1,29 @@
+package org.cosline.client.index;
+
+/**
+ * Product quantization settings of the local store.
+ *
+ * @param subspaces          bytes per encoded vector, {@code 0} picks one subspace per 16 dimensions
+ * @param trainingSampleSize number of stored vectors that triggers codebook training
+ * @param iterations         k-means iterations per codebook
+ * @param keepFullVectors    keep the float vectors to re-rank the quantized candidates exactly
+ * @param rerankFactor       candidates scored exactly per requested hit when full vectors are kept
+ */
+public record QuantizationParameters(int subspaces, int trainingSampleSize, int iterations,
+                                     boolean keepFullVectors, int rerankFactor) {
+
+    public static final int DEFAULT_TRAINING_SAMPLE_SIZE = 5_000;
+    public static final int DEFAULT_ITERATIONS = 8;
+    public static final int DEFAULT_RERANK_FACTOR = 4;
+
+    public QuantizationParameters {
+        if (subspaces < 0 || trainingSampleSize < 1 || iterations < 1 || rerankFactor < 1) {
+            throw new IllegalArgumentException("Invalid quantization parameters");
+        }
+    }
+
+    public int subspacesFor(int dimension) {
+        int resolved = subspaces > 0 ? subspaces : Math.max(1, dimension / 16);
+        return Math.min(resolved, dimension);
+    }
+}
@@ -0,0 +1,128 @@
+package org.cosline.client.index;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+
+/**
+ * Off-heap, row-major storage for fixed-dimension float vectors, addressed by ordinal.
+ * <p>
+ * Rows live in fixed-size chunks allocated from an {@link Arena}. Each row starts on a
+ * 64-byte boundary, so SIMD loads never straddle a cache line at the row start, and rows
+ * of consecutive ordinals are adjacent within a chunk, so scans over ordinals stream
+ * through memory sequentially. Growing allocates a new chunk and never copies or moves
+ * existing rows. Chunks may also be {@link #attach attached} from outside, for example
+ * mapped from a snapshot file; such chunks are read-only.
+ * <p>
+ * Rows are written by a single writer at a time and may be read concurrently; a reader
+ * must only read ordinals whose write happened-before it, for example through a volatile
+ * size published by the writer. The default {@link Arena#ofAuto() automatic arena}
+ * releases the memory once the arena is unreachable, so lock-free readers never observe
+ * a closed segment.
+ */
+public final class VectorArena {
+
+    public static final int DEFAULT_CHUNK_ROWS = 1024;
+    private static final long ROW_ALIGNMENT = 64;
+
+    private final int dimension;
+    private final long stride;
+    private final int chunkShift;
+    private final int chunkMask;
+    private final Arena arena;
+    private volatile MemorySegment[] chunks = new MemorySegment[0];
+
+    public VectorArena(int dimension) {
+        this(dimension, DEFAULT_CHUNK_ROWS, Arena.ofAuto());
+    }
+
+    /**
+     * @param chunkRows rows per chunk, rounded up to a power of two
+     */
+    public VectorArena(int dimension, int chunkRows, Arena arena) {
+        if (dimension < 1 || chunkRows < 1) {
+            throw new IllegalArgumentException("dimension and chunkRows must be positive");
+        }
+        this.dimension = dimension;
+        long rowBytes = (long) dimension * Float.BYTES;
+        this.stride = (rowBytes + ROW_ALIGNMENT - 1) / ROW_ALIGNMENT * ROW_ALIGNMENT;
+        this.chunkShift = 32 - Integer.numberOfLeadingZeros(chunkRows - 1);
+        this.chunkMask = (1 << chunkShift) - 1;
+        this.arena = arena;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Bytes between the starts of two consecutive rows.
+     */
+    public long stride() {
+        return stride;
+    }
+
+    /**
+     * The chunk holding the row of {@code ordinal}; pair with {@link #offset(int)}.
+     */
+    public MemorySegment segment(int ordinal) {
+        return chunks[ordinal >>> chunkShift];
+    }
+
+    /**
+     * Byte offset of the row of {@code ordinal} within its {@link #segment(int) chunk}.
+     */
+    public long offset(int ordinal) {
+        return (ordinal & chunkMask) * stride;
+    }
+
+    public int chunkRows() {
+        return 1 << chunkShift;
+    }
+
+    /**
+     * Appends an existing segment, such as a memory-mapped snapshot block, as the next
+     * chunk. It must hold {@link #chunkRows()} rows laid out with this arena's stride.
+     */
+    public void attach(MemorySegment rows) {
+        if (rows.byteSize() != stride << chunkShift) {
+            throw new IllegalArgumentException("Segment does not hold one chunk of rows");
+        }
+        MemorySegment[] current = Arrays.copyOf(chunks, chunks.length + 1);
+        current[current.length - 1] = rows;
+        chunks = current;
+    }
+
+    public void set(int ordinal, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Vectors lengths must be equal");
+        }
+        int chunk = ordinal >>> chunkShift;
+        MemorySegment[] current = chunks;
+        if (chunk >= current.length) {
+            current = Arrays.copyOf(current, chunk + 1);
+            for (int i = chunks.length; i <= chunk; i++) {
+                current[i] = arena.allocate(stride << chunkShift, ROW_ALIGNMENT);
+            }
+            chunks = current;
+        }
+        MemorySegment.copy(vector, 0, current[chunk], ValueLayout.JAVA_FLOAT, offset(ordinal), dimension);
+    }
+
+    /**
+     * Copies the row of {@code ordinal} onto the heap.
+     */
+    public float[] get(int ordinal) {
+        float[] vector = new float[dimension];
+        MemorySegment.copy(segment(ordinal), ValueLayout.JAVA_FLOAT, offset(ordinal), vector, 0, dimension);
+        return vector;
+    }
+
+    /**
+     * Off-heap bytes reserved by the allocated chunks.
+     */
+    public long byteSize() {
+        return (long) chunks.length * (stride << chunkShift);
+    }
+}
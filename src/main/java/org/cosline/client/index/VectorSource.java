@@ -0,0 +1,26 @@
+package org.cosline.client.index;
+
+/**
+ * Read access to the vectors of a local store, addressed by ordinal.
+ */
+public interface VectorSource {
+
+    /**
+     * The vector stored under the ordinal. Implementations may return a copy.
+     */
+    float[] vector(int ordinal);
+
+    /**
+     * Prepares a scorer for one query, so per-query work such as the query norm is done
+     * once rather than once per candidate.
+     */
+    OrdinalScorer scorer(float[] query);
+
+    /**
+     * Scores stored ordinals against a prepared query. Higher is better.
+     */
+    @FunctionalInterface
+    interface OrdinalScorer {
+        float score(int ordinal);
+    }
+}
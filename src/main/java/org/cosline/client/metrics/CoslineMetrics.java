@@ -0,0 +1,171 @@
+package org.cosline.client.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.cosline.client.model.Distance;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer meters of one vector store, tagged with its collection and distance.
+ * <p>
+ * Meters are registered once up front so the search and ingestion paths only record
+ * into them. What the search timers cover depends on the path:
+ * <ul>
+ * <li>{@code local}: scoring is the whole {@code LocalVectorIndex} search, that is the
+ * scan that scores candidates into the top-K heap, any rerank, and the ordering of the
+ * retained hits; selection is only the lookup of the result documents.</li>
+ * <li>{@code client}: scoring is not timed separately, as candidates are scored while
+ * the payloads stream in and that time falls under the {@code GET payloads} request
+ * timer; selection is the ordering of the retained hits and building of the result
+ * documents.</li>
+ * </ul>
+ * With Spring Boot Actuator on the classpath the meters are published through the
+ * {@code metrics} endpoint.
+ */
+public final class CoslineMetrics {
+
+    public static final String ENDPOINT_PAYLOADS = "payloads";
+    public static final String ENDPOINT_SEARCH = "search";
+
+    public static final String PATH_LOCAL = "local";
+    public static final String PATH_CLIENT = "client";
+
+    public static final String CACHE_QUERY_EMBEDDING = "query-embedding";
+    public static final String CACHE_SEARCH_RESULT = "search-result";
+    public static final String CACHE_DOCUMENT_EMBEDDING = "document-embedding";
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Timer documentEmbedding;
+    private final Timer queryEmbedding;
+    private final Counter documentsAdded;
+    private final Counter serverSearchFallbacks;
+
+    public CoslineMetrics(MeterRegistry registry, String collection, Distance distance) {
+        this.registry = registry;
+        this.tags = Tags.of("collection", String.valueOf(collection), "distance", String.valueOf(distance));
+        this.documentEmbedding = embeddingTimer("document");
+        this.queryEmbedding = embeddingTimer("query");
+        this.documentsAdded = Counter.builder("cosline.documents.added")
+                .description("Documents embedded and added to the collection")
+                .tags(tags)
+                .register(registry);
+        this.serverSearchFallbacks = Counter.builder("cosline.search.fallbacks")
+                .description("Searches ranked on the client because the server has no search endpoint")
+                .tags(tags)
+                .register(registry);
+    }
+
+    public Timer documentEmbedding() {
+        return documentEmbedding;
+    }
+
+    public Timer queryEmbedding() {
+        return queryEmbedding;
+    }
+
+    public Counter documentsAdded() {
+        return documentsAdded;
+    }
+
+    public Counter serverSearchFallbacks() {
+        return serverSearchFallbacks;
+    }
+
+    /**
+     * Round trip of one HTTP call to the server, from sending the request to reading the
+     * raw response body.
+     */
+    public Timer httpRequest(String method, String endpoint) {
+        return Timer.builder("cosline.http.requests")
+                .description("HTTP round trip to the Cosline server")
+                .tags(tags)
+                .tag("method", method)
+                .tag("endpoint", endpoint)
+                .register(registry);
+    }
+
+    public Timer deserialization(String endpoint) {
+        return Timer.builder("cosline.response.deserialization")
+                .description("Decoding of a Cosline server response body")
+                .tags(tags)
+                .tag("endpoint", endpoint)
+                .register(registry);
+    }
+
+    /**
+     * Bytes of request or response bodies; {@code direction} is {@code sent} or
+     * {@code received}.
+     */
+    public DistributionSummary payloadBytes(String endpoint, String direction) {
+        return DistributionSummary.builder("cosline.payload.bytes")
+                .description("Size of request and response bodies exchanged with the Cosline server")
+                .baseUnit("bytes")
+                .tags(tags)
+                .tag("endpoint", endpoint)
+                .tag("direction", direction)
+                .register(registry);
+    }
+
+    public Timer scoring(String path) {
+        return Timer.builder("cosline.search.scoring")
+                .description("Scoring of search candidates into the top-K heap, including the ordering of the hits on the local path")
+                .tags(tags)
+                .tag("path", path)
+                .register(registry);
+    }
+
+    public Timer selection(String path) {
+        return Timer.builder("cosline.search.selection")
+                .description("Building of the result documents, after ordering the hits on the client path")
+                .tags(tags)
+                .tag("path", path)
+                .register(registry);
+    }
+
+    public DistributionSummary candidates(String path) {
+        return DistributionSummary.builder("cosline.search.candidates")
+                .description("Candidates considered by one search")
+                .tags(tags)
+                .tag("path", path)
+                .register(registry);
+    }
+
+    /**
+     * Publishes the hit and miss counts and the size of a cache, read from {@code source}
+     * whenever the registry is scraped.
+     */
+    public <T> void cache(String cache, T source, ToDoubleFunction<T> hits, ToDoubleFunction<T> misses,
+                          ToDoubleFunction<T> size) {
+        cacheRequests(cache, "hit", source, hits);
+        cacheRequests(cache, "miss", source, misses);
+        Gauge.builder("cosline.cache.size", source, size)
+                .description("Entries held by a client-side cache")
+                .tags(tags)
+                .tag("cache", cache)
+                .register(registry);
+    }
+
+    private <T> void cacheRequests(String cache, String result, T source, ToDoubleFunction<T> count) {
+        FunctionCounter.builder("cosline.cache.requests", source, count)
+                .description("Lookups in a client-side cache")
+                .tags(tags)
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Timer embeddingTimer(String source) {
+        return Timer.builder("cosline.embedding")
+                .description("Latency of the EmbeddingModel call")
+                .tags(tags)
+                .tag("source", source)
+                .register(registry);
+    }
+}
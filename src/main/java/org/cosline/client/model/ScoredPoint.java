@@ -0,0 +1,74 @@
+package org.cosline.client.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.springframework.ai.document.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A single hit returned by the server-side similarity search endpoint: the point id,
+ * its score and the stored payload.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ScoredPoint {
+
+    public static final String SCORE_METADATA_KEY = "score";
+
+    private String id;
+    private double score;
+    private String content;
+    private Map<String, Object> metadata;
+    private float[] embedding;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public Map<String, Object> getMetadata() {
+        return metadata;
+    }
+
+    public void setMetadata(Map<String, Object> metadata) {
+        this.metadata = metadata;
+    }
+
+    public float[] getEmbedding() {
+        return embedding;
+    }
+
+    public void setEmbedding(float[] embedding) {
+        this.embedding = embedding;
+    }
+
+    // Converts the hit into a Spring AI document, exposing the score as metadata
+    public Document toDocument() {
+        Map<String, Object> documentMetadata = metadata != null ? new HashMap<>(metadata) : new HashMap<>();
+        documentMetadata.put(SCORE_METADATA_KEY, score);
+        Document document = new Document(id, content != null ? content : "", documentMetadata);
+        if (embedding != null) {
+            document.setEmbedding(embedding);
+        }
+        return document;
+    }
+}
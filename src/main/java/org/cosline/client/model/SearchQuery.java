@@ -0,0 +1,62 @@
+package org.cosline.client.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Request body for the server-side similarity search endpoint
+ * ({@code POST /api/v1/collections/{name}/search}).
+ */
+public class SearchQuery {
+
+    private float[] vector;
+
+    @JsonProperty("top_k")
+    private int topK;
+
+    @JsonProperty("score_threshold")
+    private double scoreThreshold;
+
+    @JsonProperty("with_vector")
+    private boolean withVector;
+
+    public SearchQuery() {
+    }
+
+    public SearchQuery(float[] vector, int topK, double scoreThreshold) {
+        this.vector = vector;
+        this.topK = topK;
+        this.scoreThreshold = scoreThreshold;
+    }
+
+    public float[] getVector() {
+        return vector;
+    }
+
+    public void setVector(float[] vector) {
+        this.vector = vector;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public double getScoreThreshold() {
+        return scoreThreshold;
+    }
+
+    public void setScoreThreshold(double scoreThreshold) {
+        this.scoreThreshold = scoreThreshold;
+    }
+
+    public boolean isWithVector() {
+        return withVector;
+    }
+
+    public void setWithVector(boolean withVector) {
+        this.withVector = withVector;
+    }
+}
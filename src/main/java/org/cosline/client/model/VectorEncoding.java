@@ -0,0 +1,80 @@
+package org.cosline.client.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+
+/**
+ * Wire encodings for embedding vectors inside JSON payloads.
+ * <p>
+ * {@link #JSON} sends a vector as an array of decimal numbers. {@link #BASE64_F32LE} sends
+ * it as one base64 string of little-endian IEEE 754 float32 values, about half the size
+ * of the decimal text and decoded with a bulk copy instead of number parsing.
+ * <p>
+ * The client offers the binary encoding with the {@link #HEADER} request header. A server
+ * that supports it echoes the header on its responses, returns vectors in that encoding,
+ * and accepts either encoding in request bodies. Until a response confirms support the
+ * client keeps sending number arrays.
+ */
+public enum VectorEncoding {
+    JSON("json"),
+    BASE64_F32LE("base64-f32le");
+
+    public static final String HEADER = "X-Cosline-Vector-Encoding";
+
+    private final String token;
+
+    VectorEncoding(String token) {
+        this.token = token;
+    }
+
+    // Value of the negotiation header
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * The encoding named by a negotiation header value; {@link #JSON} when the value is
+     * missing or unknown.
+     */
+    public static VectorEncoding fromToken(String token) {
+        for (VectorEncoding encoding : values()) {
+            if (encoding.token.equalsIgnoreCase(token)) {
+                return encoding;
+            }
+        }
+        return JSON;
+    }
+
+    public static String encode(float[] vector) {
+        ByteBuffer bytes = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asFloatBuffer().put(vector);
+        return Base64.getEncoder().encodeToString(bytes.array());
+    }
+
+    public static float[] decode(String base64) {
+        byte[] bytes = Base64.getDecoder().decode(base64);
+        float[] vector = new float[checkedLength(bytes)];
+        decode(bytes, vector);
+        return vector;
+    }
+
+    /**
+     * Decodes little-endian float32 {@code bytes} into {@code vector} when they fit and
+     * returns the number of values they hold, so a reused buffer can be length-checked.
+     */
+    public static int decode(byte[] bytes, float[] vector) {
+        int length = checkedLength(bytes);
+        if (length <= vector.length) {
+            ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector, 0, length);
+        }
+        return length;
+    }
+
+    private static int checkedLength(byte[] bytes) {
+        if (bytes.length % Float.BYTES != 0) {
+            throw new IllegalArgumentException("Binary vector length " + bytes.length + " is not a multiple of " + Float.BYTES);
+        }
+        return bytes.length / Float.BYTES;
+    }
+}
@@ -0,0 +1,73 @@
+package org.cosline.client.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Jackson module for {@code float[]} vectors on the wire. Vectors are always read in
+ * either {@link VectorEncoding}, and written in the one given to the constructor.
+ */
+public class VectorEncodingModule extends SimpleModule {
+
+    public VectorEncodingModule(VectorEncoding writeEncoding) {
+        super("CoslineVectorEncoding");
+        addDeserializer(float[].class, new VectorDeserializer());
+        if (writeEncoding == VectorEncoding.BASE64_F32LE) {
+            addSerializer(float[].class, new Base64VectorSerializer());
+        }
+    }
+
+    private static final class VectorDeserializer extends StdDeserializer<float[]> {
+
+        VectorDeserializer() {
+            super(float[].class);
+        }
+
+        @Override
+        public float[] deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                byte[] bytes = parser.getBinaryValue();
+                if (bytes.length % Float.BYTES != 0) {
+                    return (float[]) context.handleWeirdStringValue(float[].class, parser.getText(),
+                            "binary vector length is not a multiple of %d", Float.BYTES);
+                }
+                float[] vector = new float[bytes.length / Float.BYTES];
+                VectorEncoding.decode(bytes, vector);
+                return vector;
+            }
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                return (float[]) context.handleUnexpectedToken(float[].class, parser);
+            }
+            float[] vector = new float[16];
+            int length = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (length == vector.length) {
+                    vector = Arrays.copyOf(vector, length * 2);
+                }
+                vector[length++] = parser.getFloatValue();
+            }
+            return length == vector.length ? vector : Arrays.copyOf(vector, length);
+        }
+    }
+
+    private static final class Base64VectorSerializer extends StdSerializer<float[]> {
+
+        Base64VectorSerializer() {
+            super(float[].class);
+        }
+
+        @Override
+        public void serialize(float[] vector, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeString(VectorEncoding.encode(vector));
+        }
+    }
+}
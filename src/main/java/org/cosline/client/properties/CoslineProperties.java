@@ -1,6 +1,16 @@
 package org.cosline.client.properties;
 
+import org.cosline.client.cache.QueryEmbeddingCache;
+import org.cosline.client.cache.SearchResultCache;
+import org.cosline.client.index.HnswParameters;
+import org.cosline.client.index.QuantizationParameters;
+import org.cosline.client.store.BulkUpload;
+import org.cosline.client.store.IngestionPipeline;
+import org.cosline.client.store.ParallelScan;
+import org.cosline.client.transport.CoslineTransport;
+import org.cosline.client.transport.PayloadCompression;
 import org.cosline.client.model.Distance;
+import org.cosline.client.model.VectorEncoding;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -19,6 +29,45 @@ public class CoslineProperties {
     private boolean initializeSchema;
     private int dimension;
     private Distance distance;
+    private boolean serverSideSearch = true;
+    private boolean localStoreEnabled;
+    private boolean hnswEnabled;
+    private int hnswM = HnswParameters.DEFAULT_M;
+    private int hnswEfConstruction = HnswParameters.DEFAULT_EF_CONSTRUCTION;
+    private int hnswEfSearch = HnswParameters.DEFAULT_EF_SEARCH;
+    private boolean pqEnabled;
+    private int pqSubspaces;
+    private int pqTrainingSampleSize = QuantizationParameters.DEFAULT_TRAINING_SAMPLE_SIZE;
+    private boolean pqKeepFullVectors = true;
+    private int pqRerankFactor = QuantizationParameters.DEFAULT_RERANK_FACTOR;
+    private String snapshotDirectory;
+    private boolean parallelSearchEnabled = true;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int parallelThreshold = ParallelScan.DEFAULT_THRESHOLD;
+    private int parallelChunkSize = ParallelScan.DEFAULT_CHUNK_SIZE;
+    private int embeddingBatchSize = BulkUpload.DEFAULT_EMBEDDING_BATCH_SIZE;
+    private int maxPayloadBytes = BulkUpload.DEFAULT_MAX_PAYLOAD_BYTES;
+    private int uploadMaxAttempts = BulkUpload.DEFAULT_MAX_ATTEMPTS;
+    private long uploadRetryBackoffMillis = BulkUpload.DEFAULT_RETRY_BACKOFF_MILLIS;
+    private int ingestEmbeddingConcurrency = IngestionPipeline.DEFAULT_EMBEDDING_CONCURRENCY;
+    private int ingestSerializationConcurrency = IngestionPipeline.DEFAULT_SERIALIZATION_CONCURRENCY;
+    private int ingestUploadConcurrency = IngestionPipeline.DEFAULT_UPLOAD_CONCURRENCY;
+    private int ingestQueueCapacity = IngestionPipeline.DEFAULT_QUEUE_CAPACITY;
+    private int maxConnectionsPerHost = CoslineTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST;
+    private long connectionIdleTimeoutSeconds = CoslineTransport.DEFAULT_CONNECTION_IDLE_TIMEOUT_SECONDS;
+    private long connectTimeoutMillis = CoslineTransport.DEFAULT_CONNECT_TIMEOUT_MILLIS;
+    private long readTimeoutMillis = CoslineTransport.DEFAULT_READ_TIMEOUT_MILLIS;
+    private boolean http2Enabled;
+    private VectorEncoding vectorEncoding = VectorEncoding.JSON;
+    private boolean requestCompressionEnabled;
+    private int compressionLevel = PayloadCompression.DEFAULT_LEVEL;
+    private int compressionThresholdBytes = PayloadCompression.DEFAULT_THRESHOLD_BYTES;
+    private int queryEmbeddingCacheSize = QueryEmbeddingCache.DEFAULT_MAX_ENTRIES;
+    private long queryEmbeddingCacheTtlSeconds = QueryEmbeddingCache.DEFAULT_TTL_SECONDS;
+    private int searchResultCacheSize = SearchResultCache.DEFAULT_MAX_ENTRIES;
+    private long searchResultCacheTtlSeconds = SearchResultCache.DEFAULT_TTL_SECONDS;
+    private String embeddingCacheDirectory;
+    private String embeddingCacheModel;
 
     public String getApiKey() {
         return apiKey;
@@ -81,6 +130,54 @@ public class CoslineProperties {
         this.distance = distance;
     }
 
+    public boolean isServerSideSearch() {
+        return serverSideSearch;
+    }
+
+    public void setServerSideSearch(boolean serverSideSearch) {
+        this.serverSideSearch = serverSideSearch;
+    }
+
+    public boolean isLocalStoreEnabled() {
+        return localStoreEnabled;
+    }
+
+    public void setLocalStoreEnabled(boolean localStoreEnabled) {
+        this.localStoreEnabled = localStoreEnabled;
+    }
+
+    public boolean isHnswEnabled() {
+        return hnswEnabled;
+    }
+
+    public void setHnswEnabled(boolean hnswEnabled) {
+        this.hnswEnabled = hnswEnabled;
+    }
+
+    public int getHnswM() {
+        return hnswM;
+    }
+
+    public void setHnswM(int hnswM) {
+        this.hnswM = hnswM;
+    }
+
+    public int getHnswEfConstruction() {
+        return hnswEfConstruction;
+    }
+
+    public void setHnswEfConstruction(int hnswEfConstruction) {
+        this.hnswEfConstruction = hnswEfConstruction;
+    }
+
+    public int getHnswEfSearch() {
+        return hnswEfSearch;
+    }
+
+    public void setHnswEfSearch(int hnswEfSearch) {
+        this.hnswEfSearch = hnswEfSearch;
+    }
+
     @Override
     public String toString() {
         return "QdrantProperties{" +
@@ -90,4 +187,268 @@ public class CoslineProperties {
                 ", initializeSchema=" + initializeSchema +
                 '}';
     }
+
+    public boolean isPqEnabled() {
+        return pqEnabled;
+    }
+
+    public void setPqEnabled(boolean pqEnabled) {
+        this.pqEnabled = pqEnabled;
+    }
+
+    public int getPqSubspaces() {
+        return pqSubspaces;
+    }
+
+    public void setPqSubspaces(int pqSubspaces) {
+        this.pqSubspaces = pqSubspaces;
+    }
+
+    public int getPqTrainingSampleSize() {
+        return pqTrainingSampleSize;
+    }
+
+    public void setPqTrainingSampleSize(int pqTrainingSampleSize) {
+        this.pqTrainingSampleSize = pqTrainingSampleSize;
+    }
+
+    public boolean isPqKeepFullVectors() {
+        return pqKeepFullVectors;
+    }
+
+    public void setPqKeepFullVectors(boolean pqKeepFullVectors) {
+        this.pqKeepFullVectors = pqKeepFullVectors;
+    }
+
+    public int getPqRerankFactor() {
+        return pqRerankFactor;
+    }
+
+    public void setPqRerankFactor(int pqRerankFactor) {
+        this.pqRerankFactor = pqRerankFactor;
+    }
+
+    public String getSnapshotDirectory() {
+        return snapshotDirectory;
+    }
+
+    public void setSnapshotDirectory(String snapshotDirectory) {
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
+    public boolean isParallelSearchEnabled() {
+        return parallelSearchEnabled;
+    }
+
+    public void setParallelSearchEnabled(boolean parallelSearchEnabled) {
+        this.parallelSearchEnabled = parallelSearchEnabled;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public int getParallelChunkSize() {
+        return parallelChunkSize;
+    }
+
+    public void setParallelChunkSize(int parallelChunkSize) {
+        this.parallelChunkSize = parallelChunkSize;
+    }
+
+    public int getEmbeddingBatchSize() {
+        return embeddingBatchSize;
+    }
+
+    public void setEmbeddingBatchSize(int embeddingBatchSize) {
+        this.embeddingBatchSize = embeddingBatchSize;
+    }
+
+    public int getMaxPayloadBytes() {
+        return maxPayloadBytes;
+    }
+
+    public void setMaxPayloadBytes(int maxPayloadBytes) {
+        this.maxPayloadBytes = maxPayloadBytes;
+    }
+
+    public int getUploadMaxAttempts() {
+        return uploadMaxAttempts;
+    }
+
+    public void setUploadMaxAttempts(int uploadMaxAttempts) {
+        this.uploadMaxAttempts = uploadMaxAttempts;
+    }
+
+    public long getUploadRetryBackoffMillis() {
+        return uploadRetryBackoffMillis;
+    }
+
+    public void setUploadRetryBackoffMillis(long uploadRetryBackoffMillis) {
+        this.uploadRetryBackoffMillis = uploadRetryBackoffMillis;
+    }
+
+    public int getIngestEmbeddingConcurrency() {
+        return ingestEmbeddingConcurrency;
+    }
+
+    public void setIngestEmbeddingConcurrency(int ingestEmbeddingConcurrency) {
+        this.ingestEmbeddingConcurrency = ingestEmbeddingConcurrency;
+    }
+
+    public int getIngestSerializationConcurrency() {
+        return ingestSerializationConcurrency;
+    }
+
+    public void setIngestSerializationConcurrency(int ingestSerializationConcurrency) {
+        this.ingestSerializationConcurrency = ingestSerializationConcurrency;
+    }
+
+    public int getIngestUploadConcurrency() {
+        return ingestUploadConcurrency;
+    }
+
+    public void setIngestUploadConcurrency(int ingestUploadConcurrency) {
+        this.ingestUploadConcurrency = ingestUploadConcurrency;
+    }
+
+    public int getIngestQueueCapacity() {
+        return ingestQueueCapacity;
+    }
+
+    public void setIngestQueueCapacity(int ingestQueueCapacity) {
+        this.ingestQueueCapacity = ingestQueueCapacity;
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    public long getConnectionIdleTimeoutSeconds() {
+        return connectionIdleTimeoutSeconds;
+    }
+
+    public void setConnectionIdleTimeoutSeconds(long connectionIdleTimeoutSeconds) {
+        this.connectionIdleTimeoutSeconds = connectionIdleTimeoutSeconds;
+    }
+
+    public long getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(long connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public long getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public void setReadTimeoutMillis(long readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public void setHttp2Enabled(boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+    }
+
+    public VectorEncoding getVectorEncoding() {
+        return vectorEncoding;
+    }
+
+    public void setVectorEncoding(VectorEncoding vectorEncoding) {
+        this.vectorEncoding = vectorEncoding;
+    }
+
+    public boolean isRequestCompressionEnabled() {
+        return requestCompressionEnabled;
+    }
+
+    public void setRequestCompressionEnabled(boolean requestCompressionEnabled) {
+        this.requestCompressionEnabled = requestCompressionEnabled;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public int getCompressionThresholdBytes() {
+        return compressionThresholdBytes;
+    }
+
+    public void setCompressionThresholdBytes(int compressionThresholdBytes) {
+        this.compressionThresholdBytes = compressionThresholdBytes;
+    }
+
+    public int getQueryEmbeddingCacheSize() {
+        return queryEmbeddingCacheSize;
+    }
+
+    public void setQueryEmbeddingCacheSize(int queryEmbeddingCacheSize) {
+        this.queryEmbeddingCacheSize = queryEmbeddingCacheSize;
+    }
+
+    public long getQueryEmbeddingCacheTtlSeconds() {
+        return queryEmbeddingCacheTtlSeconds;
+    }
+
+    public void setQueryEmbeddingCacheTtlSeconds(long queryEmbeddingCacheTtlSeconds) {
+        this.queryEmbeddingCacheTtlSeconds = queryEmbeddingCacheTtlSeconds;
+    }
+
+    public int getSearchResultCacheSize() {
+        return searchResultCacheSize;
+    }
+
+    public void setSearchResultCacheSize(int searchResultCacheSize) {
+        this.searchResultCacheSize = searchResultCacheSize;
+    }
+
+    public long getSearchResultCacheTtlSeconds() {
+        return searchResultCacheTtlSeconds;
+    }
+
+    public void setSearchResultCacheTtlSeconds(long searchResultCacheTtlSeconds) {
+        this.searchResultCacheTtlSeconds = searchResultCacheTtlSeconds;
+    }
+
+    public String getEmbeddingCacheDirectory() {
+        return embeddingCacheDirectory;
+    }
+
+    public void setEmbeddingCacheDirectory(String embeddingCacheDirectory) {
+        this.embeddingCacheDirectory = embeddingCacheDirectory;
+    }
+
+    public String getEmbeddingCacheModel() {
+        return embeddingCacheModel;
+    }
+
+    public void setEmbeddingCacheModel(String embeddingCacheModel) {
+        this.embeddingCacheModel = embeddingCacheModel;
+    }
 }
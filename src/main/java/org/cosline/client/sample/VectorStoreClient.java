@@ -11,12 +11,15 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
 
 public class VectorStoreClient {
     private static final ObjectMapper mapper = new ObjectMapper();
     private static final Faker faker = new Faker();
     private static final HttpClient client = HttpClient.newHttpClient();
     private static final String ENDPOINT = "http://localhost:6767/collections/vector_store/payloads";
+    // Same switch as the store's, passed as -D; off by default, as not every server accepts gzip bodies
+    private static final boolean COMPRESS = Boolean.getBoolean("spring.ai.vectorstore.cosline.request-compression-enabled");
 
     private static final Map<String, List<String>> BRAND_PRODUCTS = Map.of(
             "Apple", Arrays.asList("Smartphone", "Laptop", "Tablet", "Desktop"),
@@ -66,12 +69,18 @@ public class VectorStoreClient {
             Instant batchStartTime = Instant.now();
 
             List<Map<String, Object>> records = generateBatch(batchSize);
-            String jsonPayload = mapper.writeValueAsString(records);
+            byte[] jsonPayload = mapper.writeValueAsBytes(records);
+            // 1000 vectors of 1536 floats are tens of MB of text; gzip shrinks them several times over
+            byte[] sentPayload = COMPRESS ? gzip(jsonPayload) : jsonPayload;
 
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
                     .uri(URI.create(ENDPOINT))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
+                    .header("Content-Type", "application/json");
+            if (COMPRESS) {
+                requestBuilder.header("Content-Encoding", "gzip");
+            }
+            HttpRequest request = requestBuilder
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(sentPayload))
                     .build();
 
             HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
@@ -80,8 +89,9 @@ public class VectorStoreClient {
 
             if (response.statusCode() == 200 || response.statusCode() == 201) {
                 successfulBatches++;
-                System.out.printf("Batch %d/%d sent. Status: %d. Time: %.2f seconds%n",
-                        batch + 1, batches, response.statusCode(), batchDuration.toMillis() / 1000.0);
+                System.out.printf("Batch %d/%d sent (%d bytes, %d on the wire). Status: %d. Time: %.2f seconds%n",
+                        batch + 1, batches, jsonPayload.length, sentPayload.length, response.statusCode(),
+                        batchDuration.toMillis() / 1000.0);
             } else {
                 failedBatches++;
                 System.out.printf("Batch %d/%d FAILED. Status: %d. Time: %.2f seconds%n",
@@ -97,6 +107,14 @@ public class VectorStoreClient {
                 successfulBatches, failedBatches);
     }
 
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(payload.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(payload);
+        }
+        return compressed.toByteArray();
+    }
+
     private static List<Map<String, Object>> generateBatch(int size) {
         List<Map<String, Object>> batch = new ArrayList<>();
         for (int i = 0; i < size; i++) {
@@ -0,0 +1,9 @@
+package org.cosline.client.snapshot;
+
+import java.util.Map;
+
+/**
+ * One row of the local store as it is written to a snapshot.
+ */
+public record SnapshotRecord(String id, String content, Map<String, Object> metadata, float[] vector) {
+}
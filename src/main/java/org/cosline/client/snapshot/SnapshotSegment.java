@@ -0,0 +1,195 @@
+package org.cosline.client.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.document.Document;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A sealed snapshot file holding one arena chunk of rows, opened with
+ * {@link FileChannel#map} so rows are served straight from the page cache.
+ * <p>
+ * Layout, all values little-endian:
+ * <pre>
+ * header          64 bytes: magic, version, dimension, rows (ints), stride, vector block,
+ *                 norm block, id table, metadata block offsets (longs)
+ * vector block    rows * stride bytes, each row starting on a 64-byte boundary
+ * norm block      rows floats, the inverse L2 norm of each row
+ * id table        rows + 1 int offsets into the UTF-8 id bytes that follow
+ * metadata block  rows + 1 long offsets into the JSON documents that follow
+ * </pre>
+ * Ids are read eagerly when the store is opened, documents only when a row is returned.
+ */
+public final class SnapshotSegment {
+
+    static final int MAGIC = 0x31535643;
+    static final int VERSION = 1;
+    static final long ROW_ALIGNMENT = 64;
+    private static final long HEADER_BYTES = 64;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfFloat FLOAT = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final MemorySegment file;
+    private final int dimension;
+    private final int rows;
+    private final long stride;
+    private final long vectorOffset;
+    private final long normOffset;
+    private final long idOffset;
+    private final long metadataOffset;
+
+    private SnapshotSegment(Path path, MemorySegment file) throws IOException {
+        this.file = file;
+        if (file.byteSize() < HEADER_BYTES || file.get(INT, 0) != MAGIC || file.get(INT, 4) != VERSION) {
+            throw new IOException("Not a snapshot segment: " + path);
+        }
+        this.dimension = file.get(INT, 8);
+        this.rows = file.get(INT, 12);
+        this.stride = file.get(LONG, 16);
+        this.vectorOffset = file.get(LONG, 24);
+        this.normOffset = file.get(LONG, 32);
+        this.idOffset = file.get(LONG, 40);
+        this.metadataOffset = file.get(LONG, 48);
+        if (stride != alignedStride(dimension) || normOffset != vectorOffset + rows * stride
+                || metadataOffset > file.byteSize()) {
+            throw new IOException("Corrupt snapshot segment: " + path);
+        }
+    }
+
+    public static SnapshotSegment open(Path path, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new SnapshotSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        }
+    }
+
+    /**
+     * Writes the records as a sealed segment and forces it to disk.
+     */
+    static void write(Path path, List<SnapshotRecord> records) throws IOException {
+        int rows = records.size();
+        int dimension = records.get(0).vector().length;
+        long stride = alignedStride(dimension);
+        byte[][] ids = new byte[rows][];
+        byte[][] documents = new byte[rows][];
+        long idBytes = 0;
+        long documentBytes = 0;
+        for (int row = 0; row < rows; row++) {
+            SnapshotRecord record = records.get(row);
+            ids[row] = record.id().getBytes(StandardCharsets.UTF_8);
+            documents[row] = MAPPER.writeValueAsBytes(new StoredDocument(record.content(), record.metadata()));
+            idBytes += ids[row].length;
+            documentBytes += documents[row].length;
+        }
+        long vectorOffset = HEADER_BYTES;
+        long normOffset = vectorOffset + rows * stride;
+        long idOffset = normOffset + (long) rows * Float.BYTES;
+        long metadataOffset = idOffset + (rows + 1L) * Integer.BYTES + idBytes;
+        long length = metadataOffset + (rows + 1L) * Long.BYTES + documentBytes;
+
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_WRITE, 0, length, arena);
+            file.set(INT, 0, MAGIC);
+            file.set(INT, 4, VERSION);
+            file.set(INT, 8, dimension);
+            file.set(INT, 12, rows);
+            file.set(LONG, 16, stride);
+            file.set(LONG, 24, vectorOffset);
+            file.set(LONG, 32, normOffset);
+            file.set(LONG, 40, idOffset);
+            file.set(LONG, 48, metadataOffset);
+
+            long idData = idOffset + (rows + 1L) * Integer.BYTES;
+            long documentData = metadataOffset + (rows + 1L) * Long.BYTES;
+            int idCursor = 0;
+            long documentCursor = 0;
+            for (int row = 0; row < rows; row++) {
+                float[] vector = records.get(row).vector();
+                float squaredNorm = 0;
+                for (int i = 0; i < dimension; i++) {
+                    file.set(FLOAT, vectorOffset + row * stride + (long) i * Float.BYTES, vector[i]);
+                    squaredNorm += vector[i] * vector[i];
+                }
+                file.set(FLOAT, normOffset + (long) row * Float.BYTES,
+                        squaredNorm == 0 ? 0 : (float) (1.0 / Math.sqrt(squaredNorm)));
+
+                file.set(INT, idOffset + (long) row * Integer.BYTES, idCursor);
+                MemorySegment.copy(ids[row], 0, file, ValueLayout.JAVA_BYTE, idData + idCursor, ids[row].length);
+                idCursor += ids[row].length;
+
+                file.set(LONG, metadataOffset + (long) row * Long.BYTES, documentCursor);
+                MemorySegment.copy(documents[row], 0, file, ValueLayout.JAVA_BYTE, documentData + documentCursor, documents[row].length);
+                documentCursor += documents[row].length;
+            }
+            file.set(INT, idOffset + (long) rows * Integer.BYTES, idCursor);
+            file.set(LONG, metadataOffset + (long) rows * Long.BYTES, documentCursor);
+            file.force();
+        }
+    }
+
+    static long alignedStride(int dimension) {
+        long rowBytes = (long) dimension * Float.BYTES;
+        return (rowBytes + ROW_ALIGNMENT - 1) / ROW_ALIGNMENT * ROW_ALIGNMENT;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * The mapped vector block, laid out like one {@code VectorArena} chunk.
+     */
+    public MemorySegment vectors() {
+        return file.asSlice(vectorOffset, rows * stride);
+    }
+
+    public float inverseNorm(int row) {
+        return file.get(FLOAT, normOffset + (long) row * Float.BYTES);
+    }
+
+    public String id(int row) {
+        long data = idOffset + (rows + 1L) * Integer.BYTES;
+        int start = file.get(INT, idOffset + (long) row * Integer.BYTES);
+        int end = file.get(INT, idOffset + (row + 1L) * Integer.BYTES);
+        return new String(file.asSlice(data + start, end - start).toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the document of {@code row}, without its embedding.
+     */
+    public Document document(int row) {
+        long data = metadataOffset + (rows + 1L) * Long.BYTES;
+        long start = file.get(LONG, metadataOffset + (long) row * Long.BYTES);
+        long end = file.get(LONG, metadataOffset + (row + 1L) * Long.BYTES);
+        try {
+            StoredDocument stored = MAPPER.readValue(file.asSlice(data + start, end - start).toArray(ValueLayout.JAVA_BYTE),
+                    StoredDocument.class);
+            Map<String, Object> metadata = stored.metadata() != null ? stored.metadata() : new HashMap<>();
+            return new Document(id(row), stored.content(), metadata);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt snapshot document at row " + row, e);
+        }
+    }
+
+    record StoredDocument(String content, Map<String, Object> metadata) {
+    }
+}
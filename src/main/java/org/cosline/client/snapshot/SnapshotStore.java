@@ -0,0 +1,204 @@
+package org.cosline.client.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk snapshot of the local store, written incrementally as documents are added.
+ * <p>
+ * Rows are appended to a journal as they arrive. Every time {@code chunkRows} rows have
+ * accumulated they are sealed into a {@link SnapshotSegment} file, and the journal starts
+ * over. Opening a snapshot maps the sealed segments and replays the journal, which never
+ * holds more than one chunk of rows, so opening takes time proportional to the number of
+ * ids rather than the size of the vectors.
+ * <p>
+ * Journal records are length-prefixed and checksummed; a record torn by a crash is
+ * dropped on the next open. The journal is handed to the operating system on every
+ * append and only forced to disk by {@link #flush()}, {@link #close()} and on sealing.
+ */
+public final class SnapshotStore implements Closeable {
+
+    private static final String JOURNAL = "journal.log";
+    private static final int JOURNAL_MAGIC = 0x314C4A43;
+    private static final int JOURNAL_HEADER_BYTES = 8;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path directory;
+    private final int chunkRows;
+    private final List<SnapshotSegment> segments;
+    private final List<SnapshotRecord> pending;
+    private final FileChannel journal;
+    private int nextChunk;
+
+    private SnapshotStore(Path directory, int chunkRows, List<SnapshotSegment> segments,
+                          List<SnapshotRecord> pending, FileChannel journal) {
+        this.directory = directory;
+        this.chunkRows = chunkRows;
+        this.segments = segments;
+        this.pending = pending;
+        this.journal = journal;
+        this.nextChunk = segments.size();
+    }
+
+    public static SnapshotStore open(Path directory, int chunkRows) throws IOException {
+        if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+            throw new IOException("Snapshots require a little-endian platform");
+        }
+        Files.createDirectories(directory);
+        List<SnapshotSegment> segments = new ArrayList<>();
+        for (int chunk = 0; Files.exists(segmentPath(directory, chunk)); chunk++) {
+            SnapshotSegment segment = SnapshotSegment.open(segmentPath(directory, chunk), Arena.ofAuto());
+            if (segment.rows() != chunkRows) {
+                throw new IOException("Snapshot segment " + chunk + " holds " + segment.rows() + " rows, expected " + chunkRows);
+            }
+            segments.add(segment);
+        }
+        FileChannel journal = FileChannel.open(directory.resolve(JOURNAL),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            List<SnapshotRecord> pending = readJournal(journal, segments.size());
+            return new SnapshotStore(directory, chunkRows, segments, pending, journal);
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sealed segments in ordinal order; segment {@code i} holds the rows of ordinals
+     * {@code [i * chunkRows, (i + 1) * chunkRows)}.
+     */
+    public List<SnapshotSegment> segments() {
+        return Collections.unmodifiableList(segments);
+    }
+
+    /**
+     * Rows recovered from the journal, following the last sealed segment.
+     */
+    public synchronized List<SnapshotRecord> pending() {
+        return List.copyOf(pending);
+    }
+
+    public synchronized void append(SnapshotRecord record) throws IOException {
+        byte[] id = record.id().getBytes(StandardCharsets.UTF_8);
+        byte[] document = MAPPER.writeValueAsBytes(new SnapshotSegment.StoredDocument(record.content(), record.metadata()));
+        float[] vector = record.vector();
+        int payloadLength = Integer.BYTES + id.length + Integer.BYTES + document.length + Integer.BYTES + vector.length * Float.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + payloadLength).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(payloadLength).putInt(0);
+        buffer.putInt(id.length).put(id);
+        buffer.putInt(document.length).put(document);
+        buffer.putInt(vector.length);
+        for (float value : vector) {
+            buffer.putFloat(value);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 2 * Integer.BYTES, payloadLength);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            journal.write(buffer);
+        }
+
+        pending.add(record);
+        if (pending.size() == chunkRows) {
+            seal();
+        }
+    }
+
+    public synchronized void flush() throws IOException {
+        journal.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (journal.isOpen()) {
+            journal.force(false);
+            journal.close();
+        }
+    }
+
+    private void seal() throws IOException {
+        Path target = segmentPath(directory, nextChunk);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        SnapshotSegment.write(temporary, pending);
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        nextChunk++;
+        pending.clear();
+        // A crash before the journal is reset leaves a stale chunk number behind, which open() discards
+        resetJournal(journal, nextChunk);
+    }
+
+    private static List<SnapshotRecord> readJournal(FileChannel journal, int expectedChunk) throws IOException {
+        long size = journal.size();
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (journal.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        List<SnapshotRecord> records = new ArrayList<>();
+        if (buffer.remaining() < JOURNAL_HEADER_BYTES || buffer.getInt() != JOURNAL_MAGIC || buffer.getInt() != expectedChunk) {
+            resetJournal(journal, expectedChunk);
+            return records;
+        }
+        while (buffer.remaining() >= 2 * Integer.BYTES) {
+            int start = buffer.position();
+            int payloadLength = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (payloadLength < 0 || payloadLength > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), buffer.position(), payloadLength);
+            if ((int) crc.getValue() != checksum) {
+                buffer.position(start);
+                break;
+            }
+            byte[] id = new byte[buffer.getInt()];
+            buffer.get(id);
+            byte[] document = new byte[buffer.getInt()];
+            buffer.get(document);
+            float[] vector = new float[buffer.getInt()];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = buffer.getFloat();
+            }
+            SnapshotSegment.StoredDocument stored = MAPPER.readValue(document, SnapshotSegment.StoredDocument.class);
+            records.add(new SnapshotRecord(new String(id, StandardCharsets.UTF_8), stored.content(), stored.metadata(), vector));
+        }
+        // Drop a torn tail so new records follow the last complete one
+        journal.truncate(buffer.position());
+        journal.position(buffer.position());
+        return records;
+    }
+
+    private static void resetJournal(FileChannel journal, int chunk) throws IOException {
+        journal.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(JOURNAL_MAGIC).putInt(chunk).flip();
+        journal.write(header, 0);
+        journal.position(JOURNAL_HEADER_BYTES);
+        journal.force(false);
+    }
+
+    private static Path segmentPath(Path directory, int chunk) {
+        return directory.resolve(String.format("segment-%08d.cvs", chunk));
+    }
+}
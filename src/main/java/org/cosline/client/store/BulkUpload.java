@@ -0,0 +1,93 @@
+package org.cosline.client.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Packing and retry rules for bulk ingestion through the {@code /payloads} endpoint.
+ * <p>
+ * Documents are embedded in batches of {@code embedding-batch-size} and each batch is
+ * uploaded as one or more JSON arrays no larger than {@code max-payload-bytes}. A failed
+ * upload is retried with doubling backoff when the failure may be transient, that is an
+ * I/O error or a 5xx response; other client errors are rethrown at once. Retried arrays
+ * carry the same document ids, so a server that stored a batch before the connection
+ * dropped overwrites the same points.
+ */
+public final class BulkUpload {
+
+    public static final int DEFAULT_EMBEDDING_BATCH_SIZE = 64;
+    public static final int DEFAULT_MAX_PAYLOAD_BYTES = 4 * 1024 * 1024;
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_RETRY_BACKOFF_MILLIS = 200;
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkUpload.class);
+
+    private BulkUpload() {
+    }
+
+    /**
+     * A JSON array body holding the encoded documents {@code from} (inclusive) to
+     * {@code to} (exclusive) of the packed list.
+     */
+    record JsonArray(byte[] body, int from, int to) {
+    }
+
+    /**
+     * Joins encoded documents into JSON arrays of at most {@code maxPayloadBytes}. A
+     * document too large for the limit on its own is sent as a single-element array.
+     */
+    static List<JsonArray> toJsonArrays(List<byte[]> documents, int maxPayloadBytes) {
+        List<JsonArray> arrays = new ArrayList<>();
+        ByteArrayOutputStream array = new ByteArrayOutputStream();
+        int from = 0;
+        for (int i = 0; i < documents.size(); i++) {
+            byte[] document = documents.get(i);
+            // One byte for the separator or the opening bracket and one for the closing bracket
+            if (array.size() > 0 && array.size() + document.length + 2 > maxPayloadBytes) {
+                arrays.add(close(array, from, i));
+                array.reset();
+                from = i;
+            }
+            array.write(array.size() == 0 ? '[' : ',');
+            array.writeBytes(document);
+        }
+        if (array.size() > 0) {
+            arrays.add(close(array, from, documents.size()));
+        }
+        return arrays;
+    }
+
+    private static JsonArray close(ByteArrayOutputStream array, int from, int to) {
+        array.write(']');
+        return new JsonArray(array.toByteArray(), from, to);
+    }
+
+    static <T> T withRetry(int maxAttempts, long backoffMillis, Supplier<T> call) {
+        long backoff = backoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (ResourceAccessException | HttpServerErrorException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.warn("Bulk upload failed on attempt {} of {} ({}), retrying in {} ms",
+                        attempt, maxAttempts, e.getMessage(), backoff);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoff *= 2;
+            }
+        }
+    }
+}
@@ -1,102 +1,342 @@
 package org.cosline.client.store;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.cosline.client.cache.DocumentEmbeddingCache;
+import org.cosline.client.cache.QueryEmbeddingCache;
+import org.cosline.client.cache.SearchResultCache;
+import org.cosline.client.distance.DistanceFunction;
+import org.cosline.client.distance.DistanceFunctions;
+import org.cosline.client.distance.VectorKernels;
 import org.cosline.client.filtercriteria.CoslineFilterExpressionConverter;
+import org.cosline.client.filtercriteria.MetadataPredicateCompiler;
+import org.cosline.client.index.HnswParameters;
+import org.cosline.client.index.QuantizationParameters;
+import org.cosline.client.metrics.CoslineMetrics;
+import org.cosline.client.model.Distance;
+import org.cosline.client.model.ScoredPoint;
+import org.cosline.client.model.SearchQuery;
+import org.cosline.client.model.VectorEncoding;
+import org.cosline.client.model.VectorEncodingModule;
 import org.cosline.client.properties.CoslineProperties;
+import org.cosline.client.transport.CoslineTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.document.MetadataMode;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
-
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 //@Configuration
-public class CoslineVectorStore implements InitializingBean {
+public class CoslineVectorStore implements InitializingBean, DisposableBean {
 
    // @Autowired
     CoslineProperties coslineProperties;
 
     private static final Logger logger = LoggerFactory.getLogger(CoslineProperties.class);
     protected EmbeddingModel embeddingModel;
-    protected Map<String, Document> store = new ConcurrentHashMap<>();
-    private double[] coordinates;
+    protected final LocalVectorIndex store;
+    private volatile boolean serverSearchSupported = true;
+    private final DistanceFunction distanceFunction;
+    private final MetadataPredicateCompiler filterCompiler = new MetadataPredicateCompiler();
+    private final CoslineFilterExpressionConverter filterConverter = new CoslineFilterExpressionConverter();
+    private final ParallelScan parallelScan;
+    private IngestionPipeline ingestionPipeline;
+    private final CoslineTransport transport;
+    private final boolean ownsTransport;
+    private final ExecutorService virtualThreadExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("cosline-async-", 0).factory());
+    private volatile Executor asyncExecutor = virtualThreadExecutor;
+    // Reads vectors in either encoding; the binary mapper also writes them as base64
+    private final ObjectMapper objectMapper = newObjectMapper(VectorEncoding.JSON);
+    private final ObjectMapper binaryObjectMapper = newObjectMapper(VectorEncoding.BASE64_F32LE);
+    private volatile boolean binaryVectorsAccepted;
+    private final PayloadStreamReader payloadReader = new PayloadStreamReader(objectMapper);
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final SearchResultCache searchResultCache;
+    private final DocumentEmbeddingCache documentEmbeddingCache;
+    private final CoslineMetrics metrics;
+    private final Timer uploadRequestTimer;
+    private final DistributionSummary uploadSentBytes;
+    private final Timer searchRequestTimer;
+    private final Timer searchDeserializationTimer;
+    private final DistributionSummary searchSentBytes;
+    private final DistributionSummary searchReceivedBytes;
+    private final Timer payloadsRequestTimer;
+    private final Timer payloadsDeserializationTimer;
+    private final DistributionSummary payloadsReceivedBytes;
+    private final Timer localScoringTimer;
+    private final Timer localSelectionTimer;
+    private final DistributionSummary localCandidates;
+    private final Timer clientSelectionTimer;
+    private final DistributionSummary clientCandidates;
+
     public CoslineVectorStore(EmbeddingModel embeddingModel,CoslineProperties coslineProperties) {
+        this(embeddingModel, coslineProperties, Metrics.globalRegistry);
+    }
+
+    /**
+     * @param meterRegistry registry for the store's meters; Spring Boot Actuator also
+     *                      publishes meters of the default {@link Metrics#globalRegistry}
+     */
+    public CoslineVectorStore(EmbeddingModel embeddingModel, CoslineProperties coslineProperties, MeterRegistry meterRegistry) {
+        this(embeddingModel, coslineProperties, meterRegistry, new CoslineTransport(coslineProperties), true);
+    }
+
+    /**
+     * @param transport shared transport, for example the {@code coslineTransport} bean; the
+     *                  caller keeps ownership and closes it
+     */
+    public CoslineVectorStore(EmbeddingModel embeddingModel, CoslineProperties coslineProperties, MeterRegistry meterRegistry,
+                              CoslineTransport transport) {
+        this(embeddingModel, coslineProperties, meterRegistry, transport, false);
+    }
+
+    private CoslineVectorStore(EmbeddingModel embeddingModel, CoslineProperties coslineProperties, MeterRegistry meterRegistry,
+                               CoslineTransport transport, boolean ownsTransport) {
         this.embeddingModel = embeddingModel;
         this.coslineProperties =  coslineProperties;
+        this.transport = transport;
+        this.ownsTransport = ownsTransport;
+        this.distanceFunction = DistanceFunctions.forDistance(coslineProperties.getDistance());
+        HnswParameters hnswParameters = coslineProperties.isHnswEnabled()
+                ? new HnswParameters(coslineProperties.getHnswM(), coslineProperties.getHnswEfConstruction(), coslineProperties.getHnswEfSearch())
+                : null;
+        QuantizationParameters quantizationParameters = coslineProperties.isPqEnabled()
+                ? new QuantizationParameters(coslineProperties.getPqSubspaces(), coslineProperties.getPqTrainingSampleSize(),
+                        QuantizationParameters.DEFAULT_ITERATIONS, coslineProperties.isPqKeepFullVectors(), coslineProperties.getPqRerankFactor())
+                : null;
+        this.store = new LocalVectorIndex(distanceFunction, hnswParameters, quantizationParameters);
+        this.parallelScan = coslineProperties.isParallelSearchEnabled()
+                ? new ParallelScan(coslineProperties.getParallelism(), coslineProperties.getParallelThreshold(), coslineProperties.getParallelChunkSize())
+                : null;
+        store.setParallelScan(parallelScan);
+        this.metrics = new CoslineMetrics(meterRegistry, coslineProperties.getCollectionName(), coslineProperties.getDistance());
+        this.uploadRequestTimer = metrics.httpRequest("POST", CoslineMetrics.ENDPOINT_PAYLOADS);
+        this.uploadSentBytes = metrics.payloadBytes(CoslineMetrics.ENDPOINT_PAYLOADS, "sent");
+        this.searchRequestTimer = metrics.httpRequest("POST", CoslineMetrics.ENDPOINT_SEARCH);
+        this.searchDeserializationTimer = metrics.deserialization(CoslineMetrics.ENDPOINT_SEARCH);
+        this.searchSentBytes = metrics.payloadBytes(CoslineMetrics.ENDPOINT_SEARCH, "sent");
+        this.searchReceivedBytes = metrics.payloadBytes(CoslineMetrics.ENDPOINT_SEARCH, "received");
+        this.payloadsRequestTimer = metrics.httpRequest("GET", CoslineMetrics.ENDPOINT_PAYLOADS);
+        this.payloadsDeserializationTimer = metrics.deserialization(CoslineMetrics.ENDPOINT_PAYLOADS);
+        this.payloadsReceivedBytes = metrics.payloadBytes(CoslineMetrics.ENDPOINT_PAYLOADS, "received");
+        this.localScoringTimer = metrics.scoring(CoslineMetrics.PATH_LOCAL);
+        this.localSelectionTimer = metrics.selection(CoslineMetrics.PATH_LOCAL);
+        this.localCandidates = metrics.candidates(CoslineMetrics.PATH_LOCAL);
+        this.clientSelectionTimer = metrics.selection(CoslineMetrics.PATH_CLIENT);
+        this.clientCandidates = metrics.candidates(CoslineMetrics.PATH_CLIENT);
+        this.queryEmbeddingCache = new QueryEmbeddingCache(embeddingModel.getClass().getName(),
+                coslineProperties.getQueryEmbeddingCacheSize(), Duration.ofSeconds(coslineProperties.getQueryEmbeddingCacheTtlSeconds()));
+        metrics.cache(CoslineMetrics.CACHE_QUERY_EMBEDDING, queryEmbeddingCache,
+                QueryEmbeddingCache::hitCount, QueryEmbeddingCache::missCount, QueryEmbeddingCache::size);
+        this.searchResultCache = new SearchResultCache(coslineProperties.getSearchResultCacheSize(),
+                Duration.ofSeconds(coslineProperties.getSearchResultCacheTtlSeconds()));
+        metrics.cache(CoslineMetrics.CACHE_SEARCH_RESULT, searchResultCache,
+                SearchResultCache::hitCount, SearchResultCache::missCount, SearchResultCache::size);
+        String embeddingCacheDirectory = coslineProperties.getEmbeddingCacheDirectory();
+        if (embeddingCacheDirectory != null && !embeddingCacheDirectory.isBlank()) {
+            // The client class cannot tell one model or set of options from another, so the cache is told
+            String embeddingCacheModel = coslineProperties.getEmbeddingCacheModel();
+            if (embeddingCacheModel == null || embeddingCacheModel.isBlank()) {
+                throw new IllegalStateException("spring.ai.vectorstore.cosline.embedding-cache-model must name the embedding model "
+                        + "and its options when the embedding cache is enabled");
+            }
+            // Asking the model embeds a probe text, a paid call that fails while the provider is down
+            int dimension = coslineProperties.getDimension() > 0 ? coslineProperties.getDimension() : embeddingModel.dimensions();
+            try {
+                this.documentEmbeddingCache = DocumentEmbeddingCache.open(Path.of(embeddingCacheDirectory),
+                        embeddingCacheModel, dimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open the embedding cache in " + embeddingCacheDirectory, e);
+            }
+            metrics.cache(CoslineMetrics.CACHE_DOCUMENT_EMBEDDING, documentEmbeddingCache,
+                    DocumentEmbeddingCache::hitCount, DocumentEmbeddingCache::missCount, DocumentEmbeddingCache::size);
+            logger.info("Opened embedding cache in {} with {} embeddings", embeddingCacheDirectory, documentEmbeddingCache.size());
+        } else {
+            this.documentEmbeddingCache = null;
+        }
+        String snapshotDirectory = coslineProperties.getSnapshotDirectory();
+        if (coslineProperties.isLocalStoreEnabled() && snapshotDirectory != null && !snapshotDirectory.isBlank()) {
+            try {
+                store.openSnapshot(Path.of(snapshotDirectory));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open local store snapshot in " + snapshotDirectory, e);
+            }
+            logger.info("Opened local store snapshot in {} with {} documents", snapshotDirectory, store.size());
+        }
     }
 
+    /**
+     * Embeds and uploads the documents through the {@link IngestionPipeline} and waits for
+     * all of them. Throws the cause of the first failed document if any failed.
+     */
     public void add(List<Document> documents) {
-        for (Document document : documents) {
-            logger.info("Calling EmbeddingModel for document id = {}", document.getId());
-            float[] embedding = this.embeddingModel.embed(document);
-            document.setEmbedding(embedding);
-           // this.store.put(document.getId(), document);
-            sendDocumentToApi(document);
+        IngestionResult result = ingest(documents).join();
+        if (!result.isSuccess()) {
+            Throwable cause = result.failures().values().iterator().next();
+            logger.warn("{} of {} documents failed to ingest", result.failures().size(), documents.size());
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to ingest documents", cause);
         }
     }
 
-    public List<Document> doSimilaritySearchlocal(SearchRequest request) {
-        if (request.getFilterExpression() != null) {
-            throw new UnsupportedOperationException(
-                    "The [" + this.getClass() + "] doesn't support metadata filtering!");
+    /**
+     * Queues the documents for pipelined embedding and bulk upload. Blocks while the
+     * pipeline is saturated and returns a future of the per-document outcome.
+     */
+    public CompletableFuture<IngestionResult> ingest(List<Document> documents) {
+        // Invalidated again on completion, so results read while the uploads land are not served afterwards
+        searchResultCache.invalidate();
+        return ingestionPipeline().submit(documents)
+                .whenComplete((result, failure) -> {
+                    searchResultCache.invalidate();
+                    if (result != null) {
+                        metrics.documentsAdded().increment(result.succeeded().size());
+                    }
+                });
+    }
+
+    private synchronized IngestionPipeline ingestionPipeline() {
+        if (ingestionPipeline == null) {
+            ingestionPipeline = new IngestionPipeline(new StoreIngestionStages(),
+                    Math.max(1, coslineProperties.getEmbeddingBatchSize()),
+                    coslineProperties.getIngestEmbeddingConcurrency(),
+                    coslineProperties.getIngestSerializationConcurrency(),
+                    coslineProperties.getIngestUploadConcurrency(),
+                    coslineProperties.getIngestQueueCapacity());
         }
+        return ingestionPipeline;
+    }
 
-        float[] userQueryEmbedding = getUserQueryEmbedding(request.getQuery());
-        return this.store.values()
-                .stream()
-                .map(entry -> new Similarity(entry.getId(),
-                        cosineSimilarity(userQueryEmbedding, entry.getEmbedding())))
-                .filter(s -> s.score >= request.getSimilarityThreshold())
-                .sorted(Comparator.<Similarity>comparingDouble(s -> s.score).reversed())
-                .limit(request.getTopK())
-                .map(s -> this.store.get(s.key))
-                .toList();
+    // Documents are embedded as the model sees them, with their EMBED metadata, and that
+    // same text keys the embedding cache; only texts not embedded before reach the model
+    private void embedBatch(List<Document> batch) {
+        List<Document> missing = new ArrayList<>(batch.size());
+        List<String> texts = new ArrayList<>(batch.size());
+        for (Document document : batch) {
+            String text = document.getFormattedContent(MetadataMode.EMBED);
+            float[] cached = documentEmbeddingCache != null ? documentEmbeddingCache.get(text) : null;
+            if (cached != null) {
+                document.setEmbedding(cached);
+            } else {
+                missing.add(document);
+                texts.add(text);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        List<float[]> embeddings = metrics.documentEmbedding().record(() -> this.embeddingModel.embed(texts));
+        if (embeddings.size() != missing.size()) {
+            throw new IllegalStateException("EmbeddingModel returned " + embeddings.size() + " embeddings for " + missing.size() + " documents");
+        }
+        for (int i = 0; i < missing.size(); i++) {
+            missing.get(i).setEmbedding(embeddings.get(i));
+            if (documentEmbeddingCache != null) {
+                documentEmbeddingCache.put(texts.get(i), embeddings.get(i));
+            }
+        }
     }
 
+    public List<Document> doSimilaritySearchlocal(SearchRequest request) {
+        return doSimilaritySearchlocal(request, LocalSearchOptions.defaults());
+    }
+
+    public List<Document> doSimilaritySearchlocal(SearchRequest request, LocalSearchOptions options) {
+        Predicate<Map<String, Object>> filter = request.getFilterExpression() != null
+                ? filterCompiler.compile(request.getFilterExpression())
+                : null;
+
+        float[] userQueryEmbedding = getUserQueryEmbedding(request.getQuery());
+        long start = System.nanoTime();
+        TopKCollector hits = this.store.search(userQueryEmbedding, request.getTopK(), request.getSimilarityThreshold(),
+                options, filter);
+        long scored = System.nanoTime();
+        List<Document> results = new ArrayList<>(hits.size());
+        for (int rank = 0; rank < hits.size(); rank++) {
+            // A concurrent add or delete may have retired the ordinal since it was scored
+            Document document = this.store.document(hits.doc(rank));
+            if (document != null) {
+                results.add(document);
+            }
+        }
+        localScoringTimer.record(scored - start, TimeUnit.NANOSECONDS);
+        localSelectionTimer.record(System.nanoTime() - scored, TimeUnit.NANOSECONDS);
+        localCandidates.record(hits.offered());
+        return results;
+    }
 
+    // Repeated queries are answered from the cache without calling the model
     private float[] getUserQueryEmbedding(String query) {
-        return this.embeddingModel.embed(query);
+        return queryEmbeddingCache.get(query, text -> metrics.queryEmbedding().record(() -> this.embeddingModel.embed(text)));
+    }
+
+    public QueryEmbeddingCache getQueryEmbeddingCache() {
+        return queryEmbeddingCache;
+    }
+
+    public SearchResultCache getSearchResultCache() {
+        return searchResultCache;
+    }
+
+    /**
+     * The persistent embedding cache, or {@code null} unless an embedding cache directory
+     * is configured.
+     */
+    public DocumentEmbeddingCache getDocumentEmbeddingCache() {
+        return documentEmbeddingCache;
     }
 
     public static double cosineSimilarity(float[] vectorX, float[] vectorY) {
-        logger.info("VectorX length: {}, VectorY length: {}", vectorX.length, vectorY.length);
-        logger.info("VectorX: {}", Arrays.toString(vectorX));
-        logger.info("VectorY: {}", Arrays.toString(vectorY));
         if (vectorX == null || vectorY == null) {
             throw new RuntimeException("Vectors must not be null");
         }
         if (vectorX.length != vectorY.length) {
             throw new IllegalArgumentException("Vectors lengths must be equal");
         }
-        float dotProduct = dotProduct(vectorX, vectorY);
-        float normX = norm(vectorX);
-        float normY = norm(vectorY);
-        if (normX == 0 || normY == 0) {
-            throw new IllegalArgumentException("Vectors cannot have zero norm");
-        }
-        return dotProduct / (Math.sqrt(normX) * Math.sqrt(normY));
+        return VectorKernels.get().cosine(vectorX, vectorY);
     }
 
     public static float norm(float[] vector) {
-        return dotProduct(vector, vector);
+        return VectorKernels.get().squaredNorm(vector);
     }
 
     public static float dotProduct(float[] vectorX, float[] vectorY) {
         if (vectorX.length != vectorY.length) {
             throw new IllegalArgumentException("Vectors lengths must be equal");
         }
-        float result = 0;
-        for (int i = 0; i < vectorX.length; ++i) {
-            result += vectorX[i] * vectorY[i];
-        }
-        return result;
+        return VectorKernels.get().dotProduct(vectorX, vectorY);
     }
 
     @Override
@@ -106,86 +346,335 @@ public class CoslineVectorStore implements InitializingBean {
         logger.info("CoslineVectorStore initialized with property: {}", property);
     }
 
-    public static class Similarity {
-        private String key;
-        private double score;
+    @Override
+    public void destroy() throws Exception {
+        synchronized (this) {
+            if (ingestionPipeline != null) {
+                ingestionPipeline.close();
+            }
+        }
+        store.close();
+        if (documentEmbeddingCache != null) {
+            documentEmbeddingCache.close();
+        }
+        if (parallelScan != null) {
+            parallelScan.close();
+        }
+        if (ownsTransport) {
+            transport.close();
+        }
+        virtualThreadExecutor.shutdown();
+    }
+
+    // Stage work of the ingestion pipeline; every method is called from several workers at once
+    private final class StoreIngestionStages implements IngestionPipeline.Stages {
+
+
+        @Override
+        public void embed(List<Document> batch) {
+            embedBatch(batch);
+        }
+
+        @Override
+        public void index(List<Document> batch) {
+            if (coslineProperties.isLocalStoreEnabled()) {
+                for (Document document : batch) {
+                    store.add(document);
+                }
+            }
+        }
 
-        public Similarity(String key, double score) {
-            this.key = key;
-            this.score = score;
+        @Override
+        public List<BulkUpload.JsonArray> encode(List<Document> batch) {
+            ObjectMapper mapper = requestObjectMapper();
+            List<byte[]> encoded = new ArrayList<>(batch.size());
+            for (Document document : batch) {
+                encoded.add(writeJson(mapper, document));
+            }
+            return BulkUpload.toJsonArrays(encoded, coslineProperties.getMaxPayloadBytes());
+        }
+
+        @Override
+        public void upload(byte[] body) {
+            String payloadsUrl = transport.payloadsUrl();
+            logger.debug("Uploading {} bytes to URL: {}", body.length, payloadsUrl);
+            uploadSentBytes.record(body.length);
+            HttpEntity<byte[]> request = new HttpEntity<>(body, requestHeaders());
+            ResponseEntity<String> response = BulkUpload.withRetry(coslineProperties.getUploadMaxAttempts(),
+                    coslineProperties.getUploadRetryBackoffMillis(),
+                    () -> uploadRequestTimer.record(() -> transport.restTemplate().postForEntity(payloadsUrl, request, String.class)));
+            negotiateVectorEncoding(response.getHeaders());
         }
     }
 
-    private void sendDocumentToApi(Document document) {
-        RestTemplate restTemplate = new RestTemplate();
-        logger.info("coslineProperties.getHost(): {}", coslineProperties.getHost());
-        String payloadUrl = "http://" +coslineProperties.getHost() + ":" + coslineProperties.getPort() + "/api/v1/collections/" + coslineProperties.getCollectionName() + "/payload";
-        logger.info("Sending request to URL: {}", payloadUrl);
-        //String url = "http://localhost:6767/collections/vector_store/payload";
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<Document> request = new HttpEntity<>(document, headers);
-        // Log the request
-        logger.info("Sending request to API: {}", request.getBody());
-        restTemplate.postForEntity(payloadUrl, request, String.class);
+    /**
+     * Runs {@link #doSimilaritySearch} on the async executor, a new virtual thread per
+     * search by default, so many searches can wait on the embedding model and the server
+     * at once without tying up platform threads.
+     */
+    public CompletableFuture<List<Document>> searchAsync(SearchRequest request) {
+        return CompletableFuture.supplyAsync(() -> doSimilaritySearch(request), asyncExecutor);
     }
 
-    public List<Document> doSimilaritySearch(SearchRequest request) {
-        Collection<Document> documents = getDocumentsFromApi(request);
+    /**
+     * Runs {@link #add} on the async executor. The future fails with the cause of the first
+     * failed document; use {@link #ingest} for per-document outcomes.
+     */
+    public CompletableFuture<Void> addAsync(List<Document> documents) {
+        return CompletableFuture.runAsync(() -> add(documents), asyncExecutor);
+    }
 
-        Map<String, Document> docuemntMap = documents.stream().collect(Collectors.toMap(Document::getId, Function.identity()));
+    /**
+     * Replaces the executor of {@link #searchAsync} and {@link #addAsync}. The caller owns
+     * the executor; the default virtual-thread executor is shut down with the store.
+     */
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = Objects.requireNonNull(asyncExecutor, "asyncExecutor must not be null");
+    }
+
+    /**
+     * Searches the collection, answering repeated requests from the {@link SearchResultCache}
+     * until the store next writes to the collection.
+     */
+    public List<Document> doSimilaritySearch(SearchRequest request) {
+        return searchResultCache.get(request, this::search);
+    }
 
-        logger.info("Received {} documents from API", documents);
+    private List<Document> search(SearchRequest request) {
         float[] userQueryEmbedding = getUserQueryEmbedding(request.getQuery());
-        logger.info("User query embedding: {}", userQueryEmbedding);
-        List<Document> list = documents
-                .stream()
-                .map(entry -> new Similarity(entry.getId(),
-                        cosineSimilarity(userQueryEmbedding, entry.getEmbedding())))
-                .filter(s -> {
-                    logger.info("Document ID: {}, Score: {}", s.key, s.score);
-                    return s.score >= request.getSimilarityThreshold();
-                })
+        if (coslineProperties.isServerSideSearch() && serverSearchSupported) {
+            try {
+                return searchOnServer(request, userQueryEmbedding);
+            } catch (HttpClientErrorException.NotFound | HttpClientErrorException.MethodNotAllowed
+                     | HttpServerErrorException.NotImplemented e) {
+                logger.warn("Search endpoint not available ({}), falling back to client-side ranking", e.getStatusCode());
+                serverSearchSupported = false;
+                metrics.serverSearchFallbacks().increment();
+            }
+        }
+        return rankOnClient(request, userQueryEmbedding);
+    }
 
+    /**
+     * Sends the query vector, topK, similarity threshold and filter to the server and
+     * returns only the top-K hits ranked by the server.
+     * <p>
+     * The server compares the threshold with its raw metric, which is the score only for
+     * Cosine and Dot. For Euclid and Manhattan the threshold applies to
+     * {@code 1 / (1 + distance)}, as in client-side ranking, so the server is sent no
+     * threshold and the hits it returns are filtered here instead.
+     */
+    public List<Document> searchOnServer(SearchRequest request, float[] userQueryEmbedding) {
+        RestTemplate restTemplate = transport.restTemplate();
+        URI fullUrl = withFilterParams(transport.searchUrl(), request);
+        logger.debug("Sending search request to URL: {}", fullUrl);
+
+        SearchQuery searchQuery = new SearchQuery(userQueryEmbedding, request.getTopK(), serverScoreThreshold(request));
+        byte[] body = writeJson(requestObjectMapper(), searchQuery);
+        searchSentBytes.record(body.length);
+        ResponseEntity<byte[]> response = searchRequestTimer.record(() -> restTemplate.exchange(
+                fullUrl,
+                HttpMethod.POST,
+                new HttpEntity<>(body, requestHeaders()),
+                byte[].class
+        ));
+        negotiateVectorEncoding(response.getHeaders());
+
+        List<ScoredPoint> hits = readJson(response.getBody(), new TypeReference<List<ScoredPoint>>() {},
+                searchReceivedBytes, searchDeserializationTimer);
+        if (hits == null) {
+            return List.of();
+        }
+        return hits.stream().filter(hit -> meetsThreshold(hit, request)).map(ScoredPoint::toDocument).toList();
+    }
+
+    private boolean thresholdOnServer() {
+        Distance distance = distanceFunction.distance();
+        return distance == Distance.Cosine || distance == Distance.Dot;
+    }
+
+    private double serverScoreThreshold(SearchRequest request) {
+        return thresholdOnServer() ? request.getSimilarityThreshold() : SearchRequest.SIMILARITY_THRESHOLD_ACCEPT_ALL;
+    }
 
-                .sorted(Comparator.<Similarity>comparingDouble(s -> s.score).reversed())
-                .limit(request.getTopK())
-                .map(s -> docuemntMap.get(s.key))
-                .toList();
+    // Hits are ranked best first, so filtering the server's top-K leaves the top-K above the threshold
+    private boolean meetsThreshold(ScoredPoint hit, SearchRequest request) {
+        return thresholdOnServer() || distanceFunction.toScore((float) hit.getScore()) >= request.getSimilarityThreshold();
+    }
 
-        logger.info("Returning {} documents from similarity search ", list);
-        return list;
+    // Fallback for servers without the search endpoint: stream all matching payloads and rank
+    // them as they are parsed, holding only the current top-K instead of the whole collection.
+    // Decoding and scoring overlap the transfer, so they are timed as part of the request.
+    private List<Document> rankOnClient(SearchRequest request, float[] userQueryEmbedding) {
+        URI fullUrl = withFilterParams(transport.payloadsUrl(), request);
+        logger.debug("Sending request to URL: {}", fullUrl);
 
+        StreamingTopK topK = new StreamingTopK(userQueryEmbedding, request.getTopK(),
+                request.getSimilarityThreshold(), distanceFunction);
+        Long receivedBytes = payloadsRequestTimer.record(() -> transport.restTemplate().execute(
+                fullUrl,
+                HttpMethod.GET,
+                clientRequest -> offerVectorEncoding(clientRequest.getHeaders()),
+                response -> {
+                    negotiateVectorEncoding(response.getHeaders());
+                    return payloadReader.read(response.getBody(), topK, userQueryEmbedding.length);
+                }
+        ));
+        if (receivedBytes != null) {
+            payloadsReceivedBytes.record(receivedBytes);
+        }
+        clientCandidates.record(topK.offered());
+        return clientSelectionTimer.record(topK::results);
     }
 
     public List<Document> getDocumentsFromApi(SearchRequest request) {
-        CoslineFilterExpressionConverter filterExpressionConverter = new CoslineFilterExpressionConverter();
-        RestTemplate restTemplate = new RestTemplate();
-        String payloadUrl = "http://" + coslineProperties.getHost() + ":" + coslineProperties.getPort() + "/api/v1/collections/" + coslineProperties.getCollectionName() + "/payloads";
-        //String baseUrl = "http://localhost:6767/collections/vector_store/payloads";
+        RestTemplate restTemplate = transport.restTemplate();
+        URI fullUrl = withFilterParams(transport.payloadsUrl(), request);
+        logger.debug("Sending request to URL: {}", fullUrl);
 
-        // Convert filter expression to query parameters
-        String queryParams = "";
-        if (request.getFilterExpression() != null) {
-            queryParams = filterExpressionConverter.convertToQueryParams(request.getFilterExpression());
+        HttpHeaders headers = new HttpHeaders();
+        offerVectorEncoding(headers);
+        ResponseEntity<byte[]> response = payloadsRequestTimer.record(() -> restTemplate.exchange(
+                fullUrl,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                byte[].class
+        ));
+        negotiateVectorEncoding(response.getHeaders());
+
+        return readJson(response.getBody(), new TypeReference<List<Document>>() {},
+                payloadsReceivedBytes, payloadsDeserializationTimer);
+    }
+
+    /**
+     * Reactive variant of {@link #doSimilaritySearch}, running alongside the blocking API.
+     * Server-ranked hits are emitted as each one is decoded from the response. In the
+     * client-side fallback, payloads are scored as they stream in and only the current
+     * top-K are held; the ranked hits are emitted once the stream ends. Cancelling the
+     * subscription cancels the HTTP exchange.
+     */
+    public Flux<Document> doSimilaritySearchFlux(SearchRequest request) {
+        return Mono.fromCallable(() -> getUserQueryEmbedding(request.getQuery()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(userQueryEmbedding -> {
+                    if (coslineProperties.isServerSideSearch() && serverSearchSupported) {
+                        return searchOnServerFlux(request, userQueryEmbedding)
+                                .onErrorResume(CoslineVectorStore::isMissingSearchEndpoint, e -> {
+                                    logger.warn("Search endpoint not available ({}), falling back to client-side ranking",
+                                            ((WebClientResponseException) e).getStatusCode());
+                                    serverSearchSupported = false;
+                                    metrics.serverSearchFallbacks().increment();
+                                    return rankOnClientFlux(request, userQueryEmbedding);
+                                });
+                    }
+                    return rankOnClientFlux(request, userQueryEmbedding);
+                });
+    }
+
+    /**
+     * Reactive variant of {@link #searchOnServer}, emitting hits in the server's order as
+     * they are decoded.
+     */
+    public Flux<Document> searchOnServerFlux(SearchRequest request, float[] userQueryEmbedding) {
+        SearchQuery searchQuery = new SearchQuery(userQueryEmbedding, request.getTopK(), serverScoreThreshold(request));
+        return transport.webClient().post()
+                .uri(withFilterParams(transport.searchUrl(), request))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(searchQuery)
+                .retrieve()
+                .bodyToFlux(ScoredPoint.class)
+                .filter(hit -> meetsThreshold(hit, request))
+                .map(ScoredPoint::toDocument);
+    }
+
+    private Flux<Document> rankOnClientFlux(SearchRequest request, float[] userQueryEmbedding) {
+        return getDocumentsFromApiFlux(request)
+                .collect(() -> new StreamingTopK(userQueryEmbedding, request.getTopK(), request.getSimilarityThreshold(), distanceFunction),
+                        StreamingTopK::offer)
+                .doOnNext(topK -> clientCandidates.record(topK.offered()))
+                .flatMapIterable(StreamingTopK::results);
+    }
+
+    /**
+     * Reactive variant of {@link #getDocumentsFromApi}, emitting each payload as soon as it
+     * is decoded from the response array.
+     */
+    public Flux<Document> getDocumentsFromApiFlux(SearchRequest request) {
+        return transport.webClient().get()
+                .uri(withFilterParams(transport.payloadsUrl(), request))
+                .retrieve()
+                .bodyToFlux(Document.class);
+    }
+
+    private static boolean isMissingSearchEndpoint(Throwable e) {
+        return e instanceof WebClientResponseException.NotFound || e instanceof WebClientResponseException.MethodNotAllowed
+                || e instanceof WebClientResponseException.NotImplemented;
+    }
+
+    // The query string is encoded already, so the URL is passed on as a URI and not expanded as a template
+    private URI withFilterParams(String url, SearchRequest request) {
+        if (request.getFilterExpression() == null) {
+            return URI.create(url);
         }
+        String queryParams = filterConverter.convertToQueryParams(request.getFilterExpression());
+        return URI.create(queryParams.isEmpty() ? url : url + "?" + queryParams);
+    }
+
+    private static ObjectMapper newObjectMapper(VectorEncoding vectorEncoding) {
+        return new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .registerModule(new VectorEncodingModule(vectorEncoding));
+    }
 
-        // Build full URL with query parameters
-        String fullUrl = payloadUrl;
-        if (!queryParams.isEmpty()) {
-            fullUrl = payloadUrl + "?" + queryParams;
+    private HttpHeaders requestHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        offerVectorEncoding(headers);
+        return headers;
+    }
+
+    // Offers the configured vector encoding; the reactive API keeps number arrays, which its codecs decode
+    private void offerVectorEncoding(HttpHeaders headers) {
+        if (coslineProperties.getVectorEncoding() != VectorEncoding.JSON) {
+            headers.set(VectorEncoding.HEADER, coslineProperties.getVectorEncoding().getToken());
         }
+    }
 
-        logger.info("Sending request to URL: {}", fullUrl);
+    // A server that echoes the offered encoding also accepts it in request bodies
+    private void negotiateVectorEncoding(HttpHeaders responseHeaders) {
+        if (coslineProperties.getVectorEncoding() == VectorEncoding.BASE64_F32LE && !binaryVectorsAccepted
+                && VectorEncoding.fromToken(responseHeaders.getFirst(VectorEncoding.HEADER)) == VectorEncoding.BASE64_F32LE) {
+            logger.info("Server accepts {} vectors", VectorEncoding.BASE64_F32LE.getToken());
+            binaryVectorsAccepted = true;
+        }
+    }
 
-        ResponseEntity<List<Document>> response = restTemplate.exchange(
-                fullUrl,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<List<Document>>() {}
-        );
+    private ObjectMapper requestObjectMapper() {
+        return binaryVectorsAccepted ? binaryObjectMapper : objectMapper;
+    }
+
+    private static byte[] writeJson(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode request body", e);
+        }
+    }
 
-        return response.getBody();
+    // Decodes a raw response body, recording its size and decoding time apart from the round trip
+    private <T> T readJson(byte[] body, TypeReference<T> type, DistributionSummary receivedBytes, Timer deserialization) {
+        if (body == null) {
+            return null;
+        }
+        receivedBytes.record(body.length);
+        long start = System.nanoTime();
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode response body", e);
+        } finally {
+            deserialization.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
 
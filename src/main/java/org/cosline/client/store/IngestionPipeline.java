@@ -0,0 +1,232 @@
+package org.cosline.client.store;
+
+import org.springframework.ai.document.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ingests documents through three overlapping stages, embedding, JSON serialization and
+ * HTTP upload, each run by its own worker threads and connected by bounded queues.
+ * <p>
+ * While one batch is being uploaded the next ones are already being embedded and
+ * encoded, so the embedding model and the server are both kept busy. When a stage falls
+ * behind, its input queue fills up, the upstream workers block on it, and eventually
+ * {@link #submit} blocks the caller until there is room again.
+ * <p>
+ * A failure affects only the documents it concerns: a failed embedding call fails its
+ * batch and a failed upload fails the documents of that JSON array. Each submission
+ * completes its future once every one of its documents has succeeded or failed. Errors
+ * thrown by the stages, such as an {@link AssertionError} or a {@link LinkageError} from
+ * the embedding model, fail their documents the same way and leave the worker running.
+ */
+public final class IngestionPipeline implements AutoCloseable {
+
+    public static final int DEFAULT_EMBEDDING_CONCURRENCY = 2;
+    public static final int DEFAULT_SERIALIZATION_CONCURRENCY = 1;
+    public static final int DEFAULT_UPLOAD_CONCURRENCY = 4;
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    /**
+     * The work of each stage, supplied by the store.
+     */
+    interface Stages {
+
+        /**
+         * Sets the embedding of every document of the batch.
+         */
+        void embed(List<Document> batch);
+
+        /**
+         * Called after embedding and before encoding, for example to add the batch to
+         * the local store.
+         */
+        void index(List<Document> batch);
+
+        List<BulkUpload.JsonArray> encode(List<Document> batch);
+
+        void upload(byte[] body);
+    }
+
+    private record Batch(Job job, List<Document> documents) {
+    }
+
+    private record Upload(Job job, List<Document> documents, byte[] body) {
+    }
+
+    private final Stages stages;
+    private final int batchSize;
+    private final BlockingQueue<Batch> embedQueue;
+    private final BlockingQueue<Batch> encodeQueue;
+    private final BlockingQueue<Upload> uploadQueue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final Set<Job> jobs = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    IngestionPipeline(Stages stages, int batchSize, int embeddingConcurrency, int serializationConcurrency,
+                      int uploadConcurrency, int queueCapacity) {
+        if (batchSize < 1 || embeddingConcurrency < 1 || serializationConcurrency < 1 || uploadConcurrency < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Batch size, concurrency and queue capacity must be positive");
+        }
+        this.stages = stages;
+        this.batchSize = batchSize;
+        this.embedQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.encodeQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.uploadQueue = new ArrayBlockingQueue<>(queueCapacity);
+        start("embed", embeddingConcurrency, embedQueue, this::embed);
+        start("encode", serializationConcurrency, encodeQueue, this::encode);
+        start("upload", uploadConcurrency, uploadQueue, this::upload);
+    }
+
+    /**
+     * Queues the documents in batches, blocking while the pipeline is saturated, and
+     * returns a future of their per-document outcome.
+     */
+    public CompletableFuture<IngestionResult> submit(List<Document> documents) {
+        if (closed) {
+            throw new IllegalStateException("Ingestion pipeline is closed");
+        }
+        Job job = new Job(documents.size());
+        if (documents.isEmpty()) {
+            return job.future;
+        }
+        jobs.add(job);
+        job.future.whenComplete((result, failure) -> jobs.remove(job));
+        for (int from = 0; from < documents.size(); from += batchSize) {
+            List<Document> batch = List.copyOf(documents.subList(from, Math.min(from + batchSize, documents.size())));
+            try {
+                enqueue(embedQueue, new Batch(job, batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                job.fail(documents.subList(from, documents.size()), e);
+                break;
+            } catch (IllegalStateException e) {
+                job.fail(documents.subList(from, documents.size()), e);
+                break;
+            }
+        }
+        return job.future;
+    }
+
+    private void embed(Batch batch) throws InterruptedException {
+        try {
+            stages.embed(batch.documents());
+        } catch (Throwable e) {
+            batch.job().fail(batch.documents(), e);
+            return;
+        }
+        enqueue(encodeQueue, batch);
+    }
+
+    private void encode(Batch batch) throws InterruptedException {
+        List<BulkUpload.JsonArray> arrays;
+        try {
+            stages.index(batch.documents());
+            arrays = stages.encode(batch.documents());
+        } catch (Throwable e) {
+            batch.job().fail(batch.documents(), e);
+            return;
+        }
+        for (BulkUpload.JsonArray array : arrays) {
+            enqueue(uploadQueue, new Upload(batch.job(), batch.documents().subList(array.from(), array.to()), array.body()));
+        }
+    }
+
+    private void upload(Upload upload) {
+        try {
+            stages.upload(upload.body());
+        } catch (Throwable e) {
+            upload.job().fail(upload.documents(), e);
+            return;
+        }
+        upload.job().succeed(upload.documents());
+    }
+
+    // Blocks while the queue is full, giving up once the pipeline is closed
+    private <T> void enqueue(BlockingQueue<T> queue, T item) throws InterruptedException {
+        while (!queue.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (closed) {
+                throw new IllegalStateException("Ingestion pipeline is closed");
+            }
+        }
+    }
+
+    private interface Stage<T> {
+        void run(T item) throws InterruptedException;
+    }
+
+    private <T> void start(String name, int concurrency, BlockingQueue<T> queue, Stage<T> stage) {
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(() -> {
+                while (!closed) {
+                    try {
+                        stage.run(queue.take());
+                    } catch (InterruptedException | IllegalStateException e) {
+                        return;
+                    }
+                }
+            }, "cosline-ingest-" + name + "-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Stops the workers. Documents still in flight fail with an
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        // Fail pending jobs first, so a stage that returns once interrupted cannot complete them
+        IllegalStateException cause = new IllegalStateException("Ingestion pipeline is closed");
+        for (Job job : jobs) {
+            job.future.completeExceptionally(cause);
+        }
+        workers.forEach(Thread::interrupt);
+    }
+
+    private static final class Job {
+
+        private final CompletableFuture<IngestionResult> future = new CompletableFuture<>();
+        private final AtomicInteger pending;
+        private final Queue<String> succeeded = new ConcurrentLinkedQueue<>();
+        private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+        Job(int documents) {
+            this.pending = new AtomicInteger(documents);
+            if (documents == 0) {
+                future.complete(new IngestionResult(List.of(), Map.of()));
+            }
+        }
+
+        void succeed(List<Document> documents) {
+            documents.forEach(document -> succeeded.add(document.getId()));
+            done(documents.size());
+        }
+
+        void fail(List<Document> documents, Throwable cause) {
+            documents.forEach(document -> failures.put(document.getId(), cause));
+            done(documents.size());
+        }
+
+        private void done(int documents) {
+            if (pending.addAndGet(-documents) == 0) {
+                future.complete(new IngestionResult(List.copyOf(succeeded), Map.copyOf(failures)));
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.cosline.client.store;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of one {@link CoslineVectorStore#ingest ingestion} request: the ids of the
+ * documents that were embedded and uploaded, and the cause for each that was not.
+ * Succeeded ids are in completion order, not submission order.
+ */
+public record IngestionResult(List<String> succeeded, Map<String, Throwable> failures) {
+
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+}
@@ -0,0 +1,25 @@
+package org.cosline.client.store;
+
+/**
+ * Per-request recall versus latency knobs for {@link CoslineVectorStore#doSimilaritySearchlocal}.
+ *
+ * @param efSearch HNSW candidate list size for this request, or {@code null} for the configured default
+ * @param exact    bypass the HNSW index and scan every vector
+ */
+public record LocalSearchOptions(Integer efSearch, boolean exact) {
+
+    private static final LocalSearchOptions DEFAULTS = new LocalSearchOptions(null, false);
+    private static final LocalSearchOptions EXACT = new LocalSearchOptions(null, true);
+
+    public static LocalSearchOptions defaults() {
+        return DEFAULTS;
+    }
+
+    public static LocalSearchOptions exactSearch() {
+        return EXACT;
+    }
+
+    public static LocalSearchOptions withEfSearch(int efSearch) {
+        return new LocalSearchOptions(efSearch, false);
+    }
+}
@@ -0,0 +1,582 @@
+package org.cosline.client.store;
+
+import org.cosline.client.distance.DistanceFunction;
+import org.cosline.client.distance.VectorKernel;
+import org.cosline.client.distance.VectorKernels;
+import org.cosline.client.index.HnswGraph;
+import org.cosline.client.index.HnswParameters;
+import org.cosline.client.index.ProductQuantizer;
+import org.cosline.client.index.QuantizationParameters;
+import org.cosline.client.index.VectorArena;
+import org.cosline.client.index.VectorSource;
+import org.cosline.client.model.Distance;
+import org.cosline.client.snapshot.SnapshotRecord;
+import org.cosline.client.snapshot.SnapshotSegment;
+import org.cosline.client.snapshot.SnapshotStore;
+import org.springframework.ai.document.Document;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * In-memory vector store backing {@link CoslineVectorStore#doSimilaritySearchlocal}.
+ * <p>
+ * Every document gets a dense int ordinal. Vectors, their cached inverse L2 norms and
+ * the documents are kept in parallel columns indexed by ordinal, so a cosine query is a
+ * single dot product per candidate scaled by two precomputed norms. Re-adding an id
+ * stores the new version under a fresh ordinal and retires the old one.
+ * <p>
+ * Vectors are held off-heap in a {@link VectorArena} and scored in place; the stored
+ * documents keep only id, content and metadata, and get a copy of their embedding when
+ * they are handed out.
+ * <p>
+ * When {@link HnswParameters} are given, every ordinal is also linked into an
+ * {@link HnswGraph} and searches walk the graph instead of scanning all vectors.
+ * <p>
+ * When {@link QuantizationParameters} are given, a {@link ProductQuantizer} is trained
+ * once the store holds {@code trainingSampleSize} documents and every vector is also kept
+ * as a compact code. If full vectors are kept, scans rank all codes and re-score the best
+ * {@code k * rerankFactor} exactly; otherwise the float vectors and the document
+ * embeddings are dropped and all scoring goes through the codes.
+ * <p>
+ * After {@link #openSnapshot(Path)} every add is also written to a {@link SnapshotStore}.
+ * Reopening maps the sealed snapshot segments straight into the arena and reads only the
+ * ids; documents are decoded from the snapshot the first time they are returned, and the
+ * HNSW graph, which is not persisted, is rebuilt in the background while searches scan.
+ * <p>
+ * Ordinal assignment is serialized; graph inserts from concurrent writers run in
+ * parallel, and searches run lock-free against the columns published by the last
+ * completed write.
+ */
+public class LocalVectorIndex implements VectorSource, Closeable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long TRAINING_SEED = 42L;
+
+    private final DistanceFunction distanceFunction;
+    private final VectorKernel kernel;
+    private final HnswGraph graph;
+    private final QuantizationParameters quantization;
+    private final AtomicBoolean training = new AtomicBoolean();
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+    private volatile int size;
+    private volatile SnapshotSegment[] segments = new SnapshotSegment[0];
+    private volatile boolean graphReady = true;
+    private volatile ParallelScan parallelScan;
+    private SnapshotStore snapshotStore;
+    private int dimension = -1;
+    private int liveCount;
+
+    public LocalVectorIndex(DistanceFunction distanceFunction) {
+        this(distanceFunction, null);
+    }
+
+    public LocalVectorIndex(DistanceFunction distanceFunction, HnswParameters hnswParameters) {
+        this(distanceFunction, hnswParameters, VectorKernels.get());
+    }
+
+    public LocalVectorIndex(DistanceFunction distanceFunction, HnswParameters hnswParameters, VectorKernel kernel) {
+        this(distanceFunction, hnswParameters, null, kernel);
+    }
+
+    public LocalVectorIndex(DistanceFunction distanceFunction, HnswParameters hnswParameters,
+                            QuantizationParameters quantization) {
+        this(distanceFunction, hnswParameters, quantization, VectorKernels.get());
+    }
+
+    public LocalVectorIndex(DistanceFunction distanceFunction, HnswParameters hnswParameters,
+                            QuantizationParameters quantization, VectorKernel kernel) {
+        this.distanceFunction = distanceFunction;
+        this.kernel = kernel;
+        this.graph = hnswParameters != null ? new HnswGraph(this, hnswParameters) : null;
+        this.quantization = quantization;
+    }
+
+    /**
+     * Indexes the document under its current embedding and returns its ordinal.
+     */
+    public int add(Document document) {
+        int ordinal = append(document);
+        if (graph != null) {
+            graph.insert(ordinal);
+        }
+        if (quantization != null && columns.quantizer == null && size() >= quantization.trainingSampleSize()) {
+            trainQuantizer();
+        }
+        return ordinal;
+    }
+
+    private synchronized int append(Document document) {
+        float[] embedding = document.getEmbedding();
+        if (embedding == null || embedding.length == 0) {
+            throw new IllegalArgumentException("Document " + document.getId() + " has no embedding");
+        }
+        if (dimension < 0) {
+            dimension = embedding.length;
+        } else if (embedding.length != dimension) {
+            throw new IllegalArgumentException("Vectors lengths must be equal");
+        }
+        if (snapshotStore != null) {
+            try {
+                snapshotStore.append(new SnapshotRecord(document.getId(), document.getContent(),
+                        document.getMetadata(), embedding.clone()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write the local store snapshot", e);
+            }
+        }
+
+        int ordinal = size;
+        Columns current = columns;
+        if (current.vectors == null && current.quantizer == null) {
+            current = current.withVectors(new VectorArena(dimension));
+            columns = current;
+        }
+        if (ordinal == current.documents.length) {
+            current = current.grow();
+            columns = current;
+        }
+        float inverseNorm = inverseNorm(kernel.squaredNorm(embedding));
+        current.inverseNorms[ordinal] = inverseNorm;
+        if (current.quantizer != null) {
+            encode(current.quantizer, embedding, inverseNorm, current.codes, ordinal);
+        }
+        if (current.vectors != null) {
+            current.vectors.set(ordinal, embedding);
+        }
+        current.documents[ordinal] = withoutEmbedding(document);
+        current.ids[ordinal] = document.getId();
+        register(current, document.getId(), ordinal);
+        size = ordinal + 1;
+        return ordinal;
+    }
+
+    private void register(Columns current, String id, int ordinal) {
+        Integer previous = ordinals.put(id, ordinal);
+        if (previous != null) {
+            // The vector stays behind for graph traversal, the missing id marks it retired
+            current.ids[previous] = null;
+            current.documents[previous] = null;
+        } else {
+            liveCount++;
+        }
+    }
+
+    /**
+     * Loads the snapshot in {@code directory}, creating it if needed, and persists every
+     * later add to it. Must be called before the first add.
+     */
+    public synchronized void openSnapshot(Path directory) throws IOException {
+        if (size > 0 || snapshotStore != null) {
+            throw new IllegalStateException("A snapshot can only be opened on an empty index");
+        }
+        SnapshotStore store = SnapshotStore.open(directory, VectorArena.DEFAULT_CHUNK_ROWS);
+        List<SnapshotSegment> sealed = store.segments();
+        Columns current = columns;
+        for (int chunk = 0; chunk < sealed.size(); chunk++) {
+            SnapshotSegment segment = sealed.get(chunk);
+            if (dimension >= 0 && segment.dimension() != dimension) {
+                store.close();
+                throw new IOException("Snapshot segment " + chunk + " has dimension " + segment.dimension());
+            }
+            dimension = segment.dimension();
+            if (current.vectors == null) {
+                current = current.withVectors(new VectorArena(dimension));
+            }
+            int base = chunk * segment.rows();
+            while (current.ids.length < base + segment.rows()) {
+                current = current.grow();
+            }
+            current.vectors.attach(segment.vectors());
+            for (int row = 0; row < segment.rows(); row++) {
+                current.inverseNorms[base + row] = segment.inverseNorm(row);
+                current.ids[base + row] = segment.id(row);
+                register(current, current.ids[base + row], base + row);
+            }
+            size = base + segment.rows();
+        }
+        columns = current;
+        segments = sealed.toArray(new SnapshotSegment[0]);
+
+        for (SnapshotRecord record : store.pending()) {
+            Document document = new Document(record.id(), record.content(), record.metadata());
+            document.setEmbedding(record.vector());
+            append(document);
+        }
+        snapshotStore = store;
+
+        if (graph != null && size > 0) {
+            int loaded = size;
+            graphReady = false;
+            Thread.ofPlatform().daemon().name("cosline-hnsw-rebuild").start(() -> {
+                for (int ordinal = 0; ordinal < loaded; ordinal++) {
+                    if (isLive(ordinal)) {
+                        graph.insert(ordinal);
+                    }
+                }
+                graphReady = true;
+            });
+        }
+    }
+
+    /**
+     * Runs exact and quantized scans on the given pool once they are large enough, or on
+     * the calling thread when {@code null}.
+     */
+    public void setParallelScan(ParallelScan parallelScan) {
+        this.parallelScan = parallelScan;
+    }
+
+    /**
+     * Forces the snapshot journal to disk.
+     */
+    public synchronized void flush() throws IOException {
+        if (snapshotStore != null) {
+            snapshotStore.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (snapshotStore != null) {
+            snapshotStore.close();
+        }
+    }
+
+    /**
+     * Trains the quantizer on the live vectors and encodes every ordinal. Training runs
+     * outside the write lock so concurrent adds are not blocked; only the final encoding
+     * pass and the publication of the quantized columns are serialized with writers.
+     * A writer that saw no quantizer may only win the flag after another has published
+     * one, so the check is repeated under the flag, and again under the lock.
+     */
+    void trainQuantizer() {
+        if (!training.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            float[][] sample = trainingSample();
+            if (sample == null) {
+                return;
+            }
+            ProductQuantizer quantizer = ProductQuantizer.train(sample,
+                    quantization.subspacesFor(sample[0].length), quantization.iterations(), TRAINING_SEED);
+            synchronized (this) {
+                Columns current = columns;
+                if (current.quantizer != null) {
+                    return;
+                }
+                byte[] codes = new byte[current.documents.length * quantizer.codeSize()];
+                for (int ordinal = 0; ordinal < size; ordinal++) {
+                    encode(quantizer, current.vectors.get(ordinal), current.inverseNorms[ordinal], codes, ordinal);
+                }
+                // Dropping the arena releases the full vectors once in-flight searches let go of it
+                columns = current.withCodes(quantizer, codes, quantization.keepFullVectors());
+            }
+        } finally {
+            training.set(false);
+        }
+    }
+
+    // Returns null once a quantizer is published; the full vectors may already be gone
+    private synchronized float[][] trainingSample() {
+        Columns current = columns;
+        if (current.quantizer != null) {
+            return null;
+        }
+        int capacity = quantization.trainingSampleSize();
+        float[][] sample = new float[Math.min(capacity, liveCount)][];
+        Random random = new Random(TRAINING_SEED);
+        int seen = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (current.ids[ordinal] == null) {
+                continue;
+            }
+            // Reservoir sampling keeps every live vector equally likely
+            int slot = seen < capacity ? seen : random.nextInt(seen + 1);
+            if (slot < sample.length) {
+                sample[slot] = normalized(current.vectors.get(ordinal), current.inverseNorms[ordinal]);
+            }
+            seen++;
+        }
+        return sample;
+    }
+
+    // Cosine codes are trained and stored on unit vectors so inner products become cosines
+    private float[] normalized(float[] vector, float inverseNorm) {
+        if (distanceFunction.distance() != Distance.Cosine) {
+            return vector;
+        }
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = vector[i] * inverseNorm;
+        }
+        return unit;
+    }
+
+    private void encode(ProductQuantizer quantizer, float[] vector, float inverseNorm, byte[] codes, int ordinal) {
+        quantizer.encode(normalized(vector, inverseNorm), codes, ordinal * quantizer.codeSize());
+    }
+
+    private static Document withoutEmbedding(Document document) {
+        return new Document(document.getId(), document.getContent(), document.getMetadata());
+    }
+
+    public boolean isQuantized() {
+        return columns.quantizer != null;
+    }
+
+    public Document get(String id) {
+        Integer ordinal = ordinals.get(id);
+        return ordinal != null ? document(ordinal) : null;
+    }
+
+    /**
+     * The live document at {@code ordinal} with its embedding restored, or {@code null}
+     * if the ordinal was retired. Once full vectors are dropped by quantization the
+     * document carries no embedding.
+     */
+    public Document document(int ordinal) {
+        Columns current = columns;
+        if (current.ids[ordinal] == null) {
+            return null;
+        }
+        Document document = withoutEmbedding(stored(current, ordinal));
+        if (current.vectors != null) {
+            document.setEmbedding(current.vectors.get(ordinal));
+        }
+        return document;
+    }
+
+    private Document stored(Columns current, int ordinal) {
+        Document stored = current.documents[ordinal];
+        if (stored == null) {
+            // Decoded from the snapshot on first use; a racing decode stores an equal document
+            stored = segments[ordinal / VectorArena.DEFAULT_CHUNK_ROWS].document(ordinal % VectorArena.DEFAULT_CHUNK_ROWS);
+            current.documents[ordinal] = stored;
+        }
+        return stored;
+    }
+
+    private boolean isLive(int ordinal) {
+        return columns.ids[ordinal] != null;
+    }
+
+    private boolean matches(int ordinal, Predicate<Map<String, Object>> filter) {
+        Columns current = columns;
+        return current.ids[ordinal] != null && filter.test(stored(current, ordinal).getMetadata());
+    }
+
+    public synchronized int size() {
+        return liveCount;
+    }
+
+    public Distance distance() {
+        return distanceFunction.distance();
+    }
+
+    public boolean hasGraph() {
+        return graph != null;
+    }
+
+    public TopKCollector search(float[] query, int k, double threshold) {
+        return search(query, k, threshold, LocalSearchOptions.defaults());
+    }
+
+    public TopKCollector search(float[] query, int k, double threshold, LocalSearchOptions options) {
+        return search(query, k, threshold, options, null);
+    }
+
+    /**
+     * Returns the best {@code k} live ordinals whose metadata passes {@code filter}, sorted.
+     * Walks the HNSW graph when one is configured, unless the options ask for an exact
+     * scan. The filter is tested before an ordinal is scored, so rejected documents cost
+     * no distance computation.
+     */
+    public TopKCollector search(float[] query, int k, double threshold, LocalSearchOptions options,
+                                Predicate<Map<String, Object>> filter) {
+        int end = size;
+        Columns snapshot = columns;
+        if (dimension >= 0 && query.length != dimension) {
+            throw new IllegalArgumentException("Vectors lengths must be equal");
+        }
+        TopKCollector collector = new TopKCollector(Math.min(k, end), threshold);
+        QueryScorer scorer = new QueryScorer(query);
+        IntPredicate accept = filter == null ? this::isLive : ordinal -> matches(ordinal, filter);
+
+        if (graph != null && graphReady && !options.exact()) {
+            int ef = Math.max(k, options.efSearch() != null ? options.efSearch() : graph.parameters().efSearch());
+            graph.search(scorer, ef, accept, collector::collect);
+            if (filter == null || collector.isFull()) {
+                return collector.sort();
+            }
+            // A selective filter can leave the graph's candidate list short, fall back to a scan
+            collector = new TopKCollector(Math.min(k, end), threshold);
+        }
+        if (snapshot.quantizer != null && snapshot.vectors != null && !options.exact()) {
+            // Rank every code, then re-score the shortlist against the full vectors
+            int shortlist = (int) Math.min((long) k * quantization.rerankFactor(), end);
+            TopKCollector candidates = scan(end, shortlist, -Double.MAX_VALUE, accept,
+                    ordinal -> scorer.approximate(snapshot, ordinal));
+            for (int rank = 0; rank < candidates.size(); rank++) {
+                int ordinal = candidates.doc(rank);
+                collector.collect(ordinal, scorer.score(ordinal));
+            }
+            return collector.sort();
+        }
+        return scan(end, Math.min(k, end), threshold, accept, scorer);
+    }
+
+    private TopKCollector scan(int end, int k, double threshold, IntPredicate accept, OrdinalScorer scorer) {
+        ParallelScan parallel = parallelScan;
+        if (parallel != null) {
+            return parallel.scan(end, k, threshold, accept, scorer);
+        }
+        TopKCollector collector = new TopKCollector(k, threshold);
+        for (int ordinal = 0; ordinal < end; ordinal++) {
+            if (accept.test(ordinal)) {
+                collector.collect(ordinal, scorer.score(ordinal));
+            }
+        }
+        return collector.sort();
+    }
+
+    /**
+     * The stored vector, or its reconstruction from the code once full vectors are dropped.
+     */
+    @Override
+    public float[] vector(int ordinal) {
+        Columns current = columns;
+        if (current.vectors != null) {
+            return current.vectors.get(ordinal);
+        }
+        return current.quantizer.decode(current.codes, ordinal * current.quantizer.codeSize());
+    }
+
+    @Override
+    public OrdinalScorer scorer(float[] query) {
+        return new QueryScorer(query);
+    }
+
+    static float inverseNorm(float squaredNorm) {
+        return squaredNorm == 0 ? 0 : (float) (1.0 / Math.sqrt(squaredNorm));
+    }
+
+    /**
+     * Scores ordinals exactly against the arena rows while full vectors are kept and
+     * through the quantizer's distance table otherwise. The table is built up front when a
+     * quantizer exists, or on first use if one is trained mid-query, so a scorer can be
+     * shared by the workers of a parallel scan.
+     */
+    private final class QueryScorer implements OrdinalScorer {
+
+        private final float[] query;
+        private final float queryInverseNorm;
+        private volatile float[] table;
+
+        QueryScorer(float[] query) {
+            this.query = query;
+            if (distanceFunction.distance() == Distance.Cosine) {
+                // Stored norms are cached, the query norm is computed once per query
+                this.queryInverseNorm = inverseNorm(kernel.squaredNorm(query));
+                if (queryInverseNorm == 0) {
+                    throw new IllegalArgumentException("Vectors cannot have zero norm");
+                }
+            } else {
+                this.queryInverseNorm = 0;
+            }
+            ProductQuantizer quantizer = columns.quantizer;
+            if (quantizer != null) {
+                this.table = quantizer.distanceTable(query, distanceFunction.distance());
+            }
+        }
+
+        @Override
+        public float score(int ordinal) {
+            Columns current = columns;
+            VectorArena vectors = current.vectors;
+            if (vectors == null) {
+                return approximate(current, ordinal);
+            }
+            MemorySegment segment = vectors.segment(ordinal);
+            long offset = vectors.offset(ordinal);
+            return switch (distanceFunction.distance()) {
+                case Cosine -> kernel.dotProduct(query, segment, offset) * queryInverseNorm * current.inverseNorms[ordinal];
+                case Dot -> kernel.dotProduct(query, segment, offset);
+                case Euclid -> distanceFunction.toScore((float) Math.sqrt(kernel.squaredEuclidean(query, segment, offset)));
+                case Manhattan -> distanceFunction.toScore(kernel.manhattan(query, segment, offset));
+            };
+        }
+
+        float approximate(Columns current, int ordinal) {
+            ProductQuantizer quantizer = current.quantizer;
+            float[] table = this.table;
+            if (table == null) {
+                table = quantizer.distanceTable(query, distanceFunction.distance());
+                this.table = table;
+            }
+            float value = quantizer.lookup(table, current.codes, ordinal * quantizer.codeSize());
+            return switch (distanceFunction.distance()) {
+                case Cosine -> value * queryInverseNorm;
+                case Dot -> value;
+                case Euclid -> distanceFunction.toScore((float) Math.sqrt(Math.max(0, value)));
+                case Manhattan -> distanceFunction.toScore(value);
+            };
+        }
+    }
+
+    private static final class Columns {
+
+        // Shared by all generations of the columns, the arena grows in place
+        final VectorArena vectors;
+        final float[] inverseNorms;
+        // A null id marks a retired ordinal, a null document one not yet decoded from the snapshot
+        final String[] ids;
+        final Document[] documents;
+        final ProductQuantizer quantizer;
+        final byte[] codes;
+
+        Columns(int capacity) {
+            this(null, new float[capacity], new String[capacity], new Document[capacity], null, null);
+        }
+
+        private Columns(VectorArena vectors, float[] inverseNorms, String[] ids, Document[] documents,
+                        ProductQuantizer quantizer, byte[] codes) {
+            this.vectors = vectors;
+            this.inverseNorms = inverseNorms;
+            this.ids = ids;
+            this.documents = documents;
+            this.quantizer = quantizer;
+            this.codes = codes;
+        }
+
+        Columns grow() {
+            int capacity = documents.length * 2;
+            return new Columns(vectors,
+                    Arrays.copyOf(inverseNorms, capacity),
+                    Arrays.copyOf(ids, capacity),
+                    Arrays.copyOf(documents, capacity),
+                    quantizer,
+                    quantizer != null ? Arrays.copyOf(codes, capacity * quantizer.codeSize()) : null);
+        }
+
+        Columns withVectors(VectorArena vectors) {
+            return new Columns(vectors, inverseNorms, ids, documents, quantizer, codes);
+        }
+
+        Columns withCodes(ProductQuantizer quantizer, byte[] codes, boolean keepVectors) {
+            return new Columns(keepVectors ? vectors : null, inverseNorms, ids, documents, quantizer, codes);
+        }
+    }
+}
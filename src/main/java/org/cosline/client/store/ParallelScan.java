@@ -0,0 +1,104 @@
+package org.cosline.client.store;
+
+import org.cosline.client.index.VectorSource;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+/**
+ * Scores a range of candidate ordinals on a dedicated {@link ForkJoinPool}.
+ * <p>
+ * The range is split in halves down to {@code chunkSize} candidates, a size that keeps a
+ * chunk's vectors within a few megabytes of cache. Every chunk fills its own
+ * {@link TopKCollector} and the collectors are merged pairwise as the forks join, so
+ * workers never contend on a shared heap. Scans below {@code threshold} candidates run
+ * on the calling thread, where fork overhead would outweigh the gain.
+ */
+public class ParallelScan implements AutoCloseable {
+
+    public static final int DEFAULT_THRESHOLD = 50_000;
+    public static final int DEFAULT_CHUNK_SIZE = 4_096;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final int chunkSize;
+
+    public ParallelScan(int parallelism, int threshold, int chunkSize) {
+        if (parallelism < 1 || threshold < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("parallelism, threshold and chunkSize must be positive");
+        }
+        AtomicInteger workers = new AtomicInteger();
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("cosline-scan-" + workers.incrementAndGet());
+            return thread;
+        }, null, false);
+        this.threshold = threshold;
+        this.chunkSize = chunkSize;
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Collects the best {@code k} ordinals of {@code [0, end)} that pass {@code accept}.
+     * The scorer is shared by all workers and must be thread-safe. The returned
+     * collector is sorted.
+     */
+    public TopKCollector scan(int end, int k, double threshold, IntPredicate accept, VectorSource.OrdinalScorer scorer) {
+        if (end < this.threshold || pool.getParallelism() == 1) {
+            return new ChunkTask(0, end, k, threshold, accept, scorer).scanChunk().sort();
+        }
+        return pool.invoke(new ChunkTask(0, end, k, threshold, accept, scorer)).sort();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private final class ChunkTask extends RecursiveTask<TopKCollector> {
+
+        private final int from;
+        private final int to;
+        private final int k;
+        private final double threshold;
+        private final IntPredicate accept;
+        private final VectorSource.OrdinalScorer scorer;
+
+        ChunkTask(int from, int to, int k, double threshold, IntPredicate accept, VectorSource.OrdinalScorer scorer) {
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.threshold = threshold;
+            this.accept = accept;
+            this.scorer = scorer;
+        }
+
+        @Override
+        protected TopKCollector compute() {
+            if (to - from <= chunkSize) {
+                return scanChunk();
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask right = new ChunkTask(middle, to, k, threshold, accept, scorer);
+            right.fork();
+            TopKCollector left = new ChunkTask(from, middle, k, threshold, accept, scorer).compute();
+            return new TopKCollector(Math.min(k, to - from), threshold).merge(left).merge(right.join());
+        }
+
+        TopKCollector scanChunk() {
+            TopKCollector collector = new TopKCollector(Math.min(k, to - from), threshold);
+            for (int ordinal = from; ordinal < to; ordinal++) {
+                if (accept.test(ordinal)) {
+                    collector.collect(ordinal, scorer.score(ordinal));
+                }
+            }
+            return collector;
+        }
+    }
+}
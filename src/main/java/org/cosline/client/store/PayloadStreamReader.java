@@ -0,0 +1,109 @@
+package org.cosline.client.store;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.cosline.client.model.VectorEncoding;
+import org.springframework.ai.document.Document;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads a {@code /payloads} response, a JSON array of documents, one document at a time
+ * and offers each to a {@link StreamingTopK}.
+ * <p>
+ * The {@code embedding} array is parsed straight into one {@code float[]} reused for every
+ * document, and a document object is only built once its embedding scores into the top K.
+ * Peak memory therefore depends on K and the largest single payload, not on the size of
+ * the collection. Embeddings may be number arrays or base64 strings of little-endian
+ * float32 values, see {@link VectorEncoding}. Unknown fields are skipped.
+ */
+final class PayloadStreamReader {
+
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+
+    PayloadStreamReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads the whole array into {@code topK} and returns the number of bytes consumed.
+     */
+    long read(InputStream body, StreamingTopK topK, int dimension) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.VALUE_NULL) {
+                return parser.currentLocation().getByteOffset();
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of documents, but got " + token);
+            }
+            float[] embedding = new float[dimension];
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                readDocument(parser, topK, embedding);
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new IOException("Expected a document object, but got " + token);
+            }
+            return parser.currentLocation().getByteOffset();
+        }
+    }
+
+    private void readDocument(JsonParser parser, StreamingTopK topK, float[] embedding) throws IOException {
+        String id = null;
+        String content = null;
+        Map<String, Object> metadata = null;
+        int length = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getValueAsString();
+                case "content" -> content = parser.getValueAsString();
+                case "metadata" -> metadata = value == JsonToken.VALUE_NULL ? null : parser.readValueAs(METADATA_TYPE);
+                case "embedding" -> length = readEmbedding(parser, embedding);
+                default -> parser.skipChildren();
+            }
+        }
+        if (length != embedding.length) {
+            throw new IllegalArgumentException("Vectors lengths must be equal");
+        }
+        String documentId = id;
+        String documentContent = content != null ? content : "";
+        Map<String, Object> documentMetadata = metadata != null ? metadata : new HashMap<>();
+        topK.offer(embedding, () -> {
+            Document document = documentId != null
+                    ? new Document(documentId, documentContent, documentMetadata)
+                    : new Document(documentContent, documentMetadata);
+            document.setEmbedding(embedding.clone());
+            return document;
+        });
+    }
+
+    // Returns the number of elements, which may exceed the buffer; -1 for a null embedding
+    private static int readEmbedding(JsonParser parser, float[] embedding) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return -1;
+        }
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return VectorEncoding.decode(parser.getBinaryValue(), embedding);
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Expected the embedding to be an array, but got " + parser.currentToken());
+        }
+        int length = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (length < embedding.length) {
+                embedding[length] = parser.getFloatValue();
+            }
+            length++;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,75 @@
+package org.cosline.client.store;
+
+import org.cosline.client.distance.DistanceFunction;
+import org.springframework.ai.document.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Ranks documents that arrive one at a time, for example while a response is still
+ * being decoded. Each document is scored on arrival and kept only while it is among the
+ * best {@code k}, so memory stays bounded by {@code k} whatever the number of candidates.
+ * <p>
+ * Not thread-safe; offer documents from one thread at a time.
+ */
+final class StreamingTopK {
+
+    private final float[] query;
+    private final DistanceFunction distanceFunction;
+    private final TopKCollector collector;
+    private final Map<Integer, Document> retained = new HashMap<>();
+    private int next;
+
+    StreamingTopK(float[] query, int k, double threshold, DistanceFunction distanceFunction) {
+        this.query = query;
+        this.distanceFunction = distanceFunction;
+        this.collector = new TopKCollector(Math.max(k, 0), threshold);
+    }
+
+    void offer(Document document) {
+        offer(document.getEmbedding(), () -> document);
+    }
+
+    /**
+     * Scores {@code embedding}, which may be a buffer the caller reuses, and only calls
+     * {@code document} to build the document when it enters the top K.
+     */
+    void offer(float[] embedding, Supplier<Document> document) {
+        if (embedding == null || embedding.length != query.length) {
+            throw new IllegalArgumentException("Vectors lengths must be equal");
+        }
+        int ordinal = next++;
+        float score = distanceFunction.score(query, embedding);
+        if (!collector.competitive(score)) {
+            return;
+        }
+        if (collector.isFull()) {
+            retained.remove(collector.peekDoc());
+        }
+        collector.collect(ordinal, score);
+        retained.put(ordinal, document.get());
+    }
+
+    /**
+     * Number of documents offered so far.
+     */
+    int offered() {
+        return next;
+    }
+
+    /**
+     * The retained documents, best first. No more documents can be offered afterwards.
+     */
+    List<Document> results() {
+        collector.sort();
+        List<Document> results = new ArrayList<>(collector.size());
+        for (int rank = 0; rank < collector.size(); rank++) {
+            results.add(retained.get(collector.doc(rank)));
+        }
+        return results;
+    }
+}
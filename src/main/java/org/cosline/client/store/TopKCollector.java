@@ -0,0 +1,177 @@
+package org.cosline.client.store;
+
+/**
+ * Collects the best {@code k} (ordinal, score) pairs of a scan.
+ * <p>
+ * Candidates are kept in a fixed-size binary min-heap backed by primitive arrays, so
+ * the weakest retained hit sits at the root and a scan over {@code n} candidates costs
+ * O(n log k) time without allocating per candidate. Scores below the similarity
+ * threshold are rejected before they reach the heap. Higher scores are better.
+ * <p>
+ * Instances are not thread-safe; parallel scans keep one collector per worker.
+ */
+public final class TopKCollector {
+
+    private final int[] docs;
+    private final float[] scores;
+    private final float threshold;
+    private int size;
+    private int offered;
+    private boolean sorted;
+
+    public TopKCollector(int k, double threshold) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        this.docs = new int[k];
+        this.scores = new float[k];
+        this.threshold = (float) threshold;
+    }
+
+    /**
+     * Returns whether a candidate with the given score would currently enter the heap.
+     * Nothing enters a collector of {@code k = 0}.
+     */
+    public boolean competitive(float score) {
+        if (docs.length == 0) {
+            return false;
+        }
+        return score >= threshold && (size < docs.length || score > scores[0]);
+    }
+
+    /**
+     * Offers a candidate. Returns {@code true} if it was retained.
+     */
+    public boolean collect(int doc, float score) {
+        if (sorted) {
+            throw new IllegalStateException("Collector has already been sorted");
+        }
+        offered++;
+        if (!competitive(score)) {
+            return false;
+        }
+        if (size < docs.length) {
+            docs[size] = doc;
+            scores[size] = score;
+            siftUp(size++);
+        } else {
+            docs[0] = doc;
+            scores[0] = score;
+            siftDown(0, size);
+        }
+        return true;
+    }
+
+    /**
+     * Offers every candidate retained by {@code other}, which must not be sorted yet.
+     * Used to combine the per-worker collectors of a parallel scan.
+     */
+    public TopKCollector merge(TopKCollector other) {
+        if (other.sorted) {
+            throw new IllegalStateException("Cannot merge a sorted collector");
+        }
+        for (int i = 0; i < other.size; i++) {
+            collect(other.docs[i], other.scores[i]);
+        }
+        offered += other.offered - other.size;
+        return this;
+    }
+
+    public boolean isFull() {
+        return size == docs.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of candidates offered so far, retained or not, including those offered to
+     * merged collectors.
+     */
+    public int offered() {
+        return offered;
+    }
+
+    /**
+     * Ordinal of the weakest retained candidate, the one the next accepted candidate
+     * would evict once the heap is full.
+     */
+    public int peekDoc() {
+        if (size == 0) {
+            throw new IllegalStateException("Collector is empty");
+        }
+        return docs[0];
+    }
+
+    /**
+     * Sorts the retained candidates best-first in place. After this call {@link #doc(int)}
+     * and {@link #score(int)} return ranks {@code 0..size()-1} and no more candidates
+     * can be collected.
+     */
+    public TopKCollector sort() {
+        if (!sorted) {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            sorted = true;
+        }
+        return this;
+    }
+
+    public int doc(int rank) {
+        checkSorted();
+        return docs[rank];
+    }
+
+    public float score(int rank) {
+        checkSorted();
+        return scores[rank];
+    }
+
+    private void checkSorted() {
+        if (!sorted) {
+            throw new IllegalStateException("Call sort() before reading ranked results");
+        }
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[i] >= scores[parent]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int end) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= end) {
+                return;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < end && scores[right] < scores[left]) {
+                smallest = right;
+            }
+            if (scores[i] <= scores[smallest]) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int doc = docs[a];
+        docs[a] = docs[b];
+        docs[b] = doc;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
@@ -0,0 +1,185 @@
+package org.cosline.client.transport;
+
+import io.netty.channel.ChannelOption;
+import org.cosline.client.properties.CoslineProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.ReactorNettyClientRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The HTTP transport shared by every call to a Cosline server.
+ * <p>
+ * One Reactor Netty {@link HttpClient} keeps connections alive in a pool of its own and
+ * reuses them across requests, instead of opening a new connection for every call. It
+ * uses the configured connect timeout and, optionally, HTTP/2 over cleartext. A
+ * {@link RestTemplate} over the client adds the read timeout. Concurrent requests per host are capped at {@code max-connections-per-host}.
+ * Over HTTP/1.1 each in-flight request holds one connection, so the cap also bounds the
+ * open connections. A request holds its permit until its response is closed. Bodies are
+ * compressed as described in {@link PayloadCompression}.
+ * <p>
+ * A {@link WebClient} over the same client serves the streaming search API. Its requests
+ * are non-blocking, so they are not counted against the per-host cap and apply no read
+ * timeout; callers bound them with operators such as {@code timeout}.
+ * <p>
+ * The pool closes connections that have been idle for
+ * {@code connection-idle-timeout-seconds}. The setting belongs to this transport's pool
+ * alone; other HTTP clients in the JVM are not affected. {@link #close()} closes the
+ * pooled connections.
+ * <p>
+ * The collection URLs are built once from {@link CoslineProperties}.
+ */
+public class CoslineTransport implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 64;
+    public static final long DEFAULT_CONNECTION_IDLE_TIMEOUT_SECONDS = 60;
+    public static final long DEFAULT_CONNECT_TIMEOUT_MILLIS = 5_000;
+    public static final long DEFAULT_READ_TIMEOUT_MILLIS = 30_000;
+
+    private final ConnectionProvider connectionProvider;
+    private final RestTemplate restTemplate;
+    private final WebClient webClient;
+    private final int maxConnectionsPerHost;
+    private final Map<String, Semaphore> connections = new ConcurrentHashMap<>();
+    private final String collectionUrl;
+    private final String payloadsUrl;
+    private final String searchUrl;
+
+    public CoslineTransport(CoslineProperties coslineProperties) {
+        if (coslineProperties.getMaxConnectionsPerHost() < 1) {
+            throw new IllegalArgumentException("max-connections-per-host must be positive");
+        }
+        Duration idleTimeout = Duration.ofSeconds(coslineProperties.getConnectionIdleTimeoutSeconds());
+        // Blocking calls queue on the per-host permits below, so the pool itself never refuses to queue
+        this.connectionProvider = ConnectionProvider.builder("cosline")
+                .maxConnections(coslineProperties.getMaxConnectionsPerHost())
+                .maxIdleTime(idleTimeout)
+                .evictInBackground(idleTimeout)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(coslineProperties.getConnectTimeoutMillis()))
+                .protocol(coslineProperties.isHttp2Enabled()
+                        ? new HttpProtocol[] {HttpProtocol.H2C, HttpProtocol.HTTP11}
+                        : new HttpProtocol[] {HttpProtocol.HTTP11})
+                .followRedirect(false);
+        ReactorNettyClientRequestFactory requestFactory = new ReactorNettyClientRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(coslineProperties.getReadTimeoutMillis()));
+        this.restTemplate = new RestTemplate(requestFactory);
+        // Compress before taking a connection permit, so the permit is not held during compression
+        this.restTemplate.getInterceptors().add(new PayloadCompression(coslineProperties.isRequestCompressionEnabled(),
+                coslineProperties.getCompressionLevel(), coslineProperties.getCompressionThresholdBytes()));
+        this.restTemplate.getInterceptors().add(this::limitConnections);
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.maxConnectionsPerHost = coslineProperties.getMaxConnectionsPerHost();
+        this.collectionUrl = String.format("http://%s:%d/api/v1/collections/%s",
+                coslineProperties.getHost(), coslineProperties.getPort(), coslineProperties.getCollectionName());
+        this.payloadsUrl = collectionUrl + "/payloads";
+        this.searchUrl = collectionUrl + "/search";
+    }
+
+    public RestTemplate restTemplate() {
+        return restTemplate;
+    }
+
+    public WebClient webClient() {
+        return webClient;
+    }
+
+    public String collectionUrl() {
+        return collectionUrl;
+    }
+
+    public String payloadsUrl() {
+        return payloadsUrl;
+    }
+
+    public String searchUrl() {
+        return searchUrl;
+    }
+
+    private ClientHttpResponse limitConnections(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Semaphore permits = connections.computeIfAbsent(request.getURI().getAuthority(),
+                host -> new Semaphore(maxConnectionsPerHost));
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + request.getURI().getAuthority());
+        }
+        try {
+            return new PermitReleasingResponse(execution.execute(request, body), permits);
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitReleasingResponse(ClientHttpResponse response, Semaphore permits) {
+            this.response = response;
+            this.permits = permits;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.cosline.client.transport;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip compression of request and response bodies, applied to every call made through
+ * the transport's {@link org.springframework.web.client.RestTemplate}.
+ * <p>
+ * Every request sends {@code Accept-Encoding: gzip}. A gzip response body is decompressed
+ * as it is read, so the JSON parser consumes the inflated stream directly and the whole
+ * decompressed body is never buffered. Servers that do not compress are unaffected.
+ * <p>
+ * Request bodies of at least {@code compression-threshold-bytes} are gzipped at
+ * {@code compression-level} when request compression is enabled. It is off by default,
+ * since a server must accept {@code Content-Encoding: gzip} bodies. Smaller bodies are
+ * sent as they are, because they gain little and would still pay the CPU cost.
+ */
+public final class PayloadCompression implements ClientHttpRequestInterceptor {
+
+    public static final int DEFAULT_LEVEL = 6;
+    public static final int DEFAULT_THRESHOLD_BYTES = 8 * 1024;
+
+    static final String GZIP = "gzip";
+
+    private final boolean compressRequests;
+    private final int level;
+    private final int thresholdBytes;
+
+    public PayloadCompression(boolean compressRequests, int level, int thresholdBytes) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("compression-level must be between 1 and 9");
+        }
+        if (thresholdBytes < 0) {
+            throw new IllegalArgumentException("compression-threshold-bytes must not be negative");
+        }
+        this.compressRequests = compressRequests;
+        this.level = level;
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        HttpHeaders headers = request.getHeaders();
+        if (!headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, GZIP);
+        }
+        if (compressRequests && body.length > 0 && body.length >= thresholdBytes
+                && !headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            body = gzip(body, level);
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            headers.setContentLength(body.length);
+        }
+        ClientHttpResponse response = execution.execute(request, body);
+        return GZIP.equalsIgnoreCase(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+                ? new GunzipResponse(response)
+                : response;
+    }
+
+    static byte[] gzip(byte[] body, int level) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new LeveledGzipOutputStream(compressed, level)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        LeveledGzipOutputStream(ByteArrayOutputStream out, int level) throws IOException {
+            super(out, 8192);
+            def.setLevel(level);
+        }
+    }
+
+    // Inflates the body while it is read; the encoding and length headers no longer apply to it
+    private static final class GunzipResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final HttpHeaders headers = new HttpHeaders();
+        private InputStream body;
+
+        GunzipResponse(ClientHttpResponse response) {
+            this.response = response;
+            this.headers.putAll(response.getHeaders());
+            this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+            this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new GZIPInputStream(response.getBody(), 8192);
+            }
+            return body;
+        }
+
+        // Ends the inflater, which holds native memory until it is closed
+        @Override
+        public void close() {
+            try {
+                if (body != null) {
+                    body.close();
+                }
+            } catch (IOException e) {
+                // The response is being discarded; closing it below is all that is left to do
+            } finally {
+                response.close();
+            }
+        }
+    }
+}
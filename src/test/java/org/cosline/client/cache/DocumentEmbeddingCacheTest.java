@@ -0,0 +1,135 @@
+package org.cosline.client.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentEmbeddingCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEmbeddingsSurviveReopen() throws IOException {
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model", 2)) {
+            assertNull(cache.get("red shoes"));
+            cache.put("red shoes", new float[] {0.25f, -1.5f});
+            cache.put("blue shoes", new float[] {1, 2});
+            assertArrayEquals(new float[] {0.25f, -1.5f}, cache.get("red shoes"));
+        }
+
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model", 2)) {
+            assertEquals(2, cache.size());
+            assertArrayEquals(new float[] {0.25f, -1.5f}, cache.get("red shoes"));
+            assertArrayEquals(new float[] {1, 2}, cache.get("blue shoes"));
+            assertNull(cache.get("green shoes"));
+            assertEquals(2, cache.hitCount());
+            assertEquals(1, cache.missCount());
+        }
+    }
+
+    @Test
+    void testContentIsStoredOnce() throws IOException {
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model", 2)) {
+            cache.put("red shoes", new float[] {1, 2});
+            long size = Files.size(directory.resolve("embeddings.log"));
+            cache.put("red shoes", new float[] {3, 4});
+
+            assertEquals(size, Files.size(directory.resolve("embeddings.log")));
+            assertArrayEquals(new float[] {1, 2}, cache.get("red shoes"));
+        }
+    }
+
+    @Test
+    void testEntriesOfAnotherModelAreNotReturned() throws IOException {
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model-a", 2)) {
+            cache.put("red shoes", new float[] {1, 2});
+        }
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model-b", 2)) {
+            assertNull(cache.get("red shoes"));
+            cache.put("red shoes", new float[] {3, 4});
+            assertArrayEquals(new float[] {3, 4}, cache.get("red shoes"));
+        }
+    }
+
+    @Test
+    void testEntriesOfAnotherDimensionAreNotReturned() throws IOException {
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model", 2)) {
+            cache.put("red shoes", new float[] {1, 2});
+        }
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model", 3)) {
+            assertNull(cache.get("red shoes"));
+            cache.put("red shoes", new float[] {3, 4, 5});
+            assertArrayEquals(new float[] {3, 4, 5}, cache.get("red shoes"));
+        }
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model", 2)) {
+            assertArrayEquals(new float[] {1, 2}, cache.get("red shoes"));
+        }
+    }
+
+    @Test
+    void testEmbeddingOfTheWrongLengthIsNotStored() throws IOException {
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model", 2)) {
+            cache.put("red shoes", new float[] {1, 2, 3});
+
+            assertEquals(0, cache.size());
+            assertNull(cache.get("red shoes"));
+        }
+    }
+
+    @Test
+    void testModelIdentityIsRequired() {
+        assertThrows(IllegalArgumentException.class, () -> DocumentEmbeddingCache.open(directory, " ", 2));
+    }
+
+    @Test
+    void testTornRecordIsDropped() throws IOException {
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model", 2)) {
+            cache.put("red shoes", new float[] {1, 2});
+            cache.put("blue shoes", new float[] {3, 4});
+        }
+        try (FileChannel channel = FileChannel.open(directory.resolve("embeddings.log"), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model", 2)) {
+            assertEquals(1, cache.size());
+            assertArrayEquals(new float[] {1, 2}, cache.get("red shoes"));
+            assertNull(cache.get("blue shoes"));
+            cache.put("blue shoes", new float[] {5, 6});
+        }
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model", 2)) {
+            assertArrayEquals(new float[] {5, 6}, cache.get("blue shoes"));
+        }
+    }
+
+    @Test
+    void testDamagedRecordIsAMissAndStoredAgain() throws IOException {
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model", 2)) {
+            cache.put("red shoes", new float[] {1, 2});
+            cache.put("blue shoes", new float[] {3, 4});
+        }
+        // Flip a byte in the vector of the first record, behind the file header, record header, hash and dimension
+        try (FileChannel channel = FileChannel.open(directory.resolve("embeddings.log"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7f}), 8 + 8 + 32 + 4);
+        }
+
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model", 2)) {
+            assertNull(cache.get("red shoes"));
+            cache.put("red shoes", new float[] {1, 2});
+            assertArrayEquals(new float[] {1, 2}, cache.get("red shoes"));
+            assertArrayEquals(new float[] {3, 4}, cache.get("blue shoes"));
+        }
+        try (DocumentEmbeddingCache cache = DocumentEmbeddingCache.open(directory, "model", 2)) {
+            assertArrayEquals(new float[] {1, 2}, cache.get("red shoes"));
+        }
+    }
+}
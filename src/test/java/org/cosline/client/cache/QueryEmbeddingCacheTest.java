@@ -0,0 +1,105 @@
+package org.cosline.client.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryEmbeddingCacheTest {
+
+    private final List<String> embedded = new ArrayList<>();
+    private final Function<String, float[]> model = text -> {
+        embedded.add(text);
+        return new float[] {text.length(), 1};
+    };
+
+    @Test
+    void testRepeatedQueriesSkipTheModel() {
+        QueryEmbeddingCache cache = new QueryEmbeddingCache("model", 10, Duration.ofMinutes(1));
+
+        float[] first = cache.get("red shoes", model);
+        float[] second = cache.get("red shoes", model);
+
+        assertSame(first, second);
+        assertEquals(List.of("red shoes"), embedded);
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void testQueriesAreNormalizedBeforeLookupAndEmbedding() {
+        QueryEmbeddingCache cache = new QueryEmbeddingCache("model", 10, Duration.ofMinutes(1));
+
+        cache.get("  red \t shoes\n", model);
+        cache.get("red shoes", model);
+        // NFKC folds the full-width letters to ASCII
+        cache.get("ｒｅｄ shoes", model);
+        cache.get("Red shoes", model);
+
+        assertEquals(List.of("red shoes", "Red shoes"), embedded);
+        assertEquals(2, cache.hitCount());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        QueryEmbeddingCache cache = new QueryEmbeddingCache("model", 2, Duration.ofMinutes(1));
+
+        cache.get("a", model);
+        cache.get("b", model);
+        cache.get("a", model);
+        cache.get("c", model);
+        cache.get("a", model);
+        cache.get("b", model);
+
+        assertEquals(List.of("a", "b", "c", "b"), embedded);
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.evictionCount());
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        QueryEmbeddingCache cache = new QueryEmbeddingCache("model", 10, Duration.ofSeconds(10), now::get);
+
+        cache.get("a", model);
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        cache.get("a", model);
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        cache.get("a", model);
+
+        assertEquals(List.of("a", "a"), embedded);
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void testZeroSizeDisablesCaching() {
+        QueryEmbeddingCache cache = new QueryEmbeddingCache("model", 0, Duration.ofMinutes(1));
+
+        cache.get("a", model);
+        cache.get("a", model);
+
+        assertEquals(2, embedded.size());
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.missCount());
+        assertThrows(IllegalArgumentException.class, () -> new QueryEmbeddingCache("model", -1, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void testFailedEmbeddingsAreNotCached() {
+        QueryEmbeddingCache cache = new QueryEmbeddingCache("model", 10, Duration.ofMinutes(1));
+
+        assertThrows(IllegalStateException.class, () -> cache.get("a", text -> {
+            throw new IllegalStateException("model unavailable");
+        }));
+        cache.get("a", model);
+
+        assertEquals(List.of("a"), embedded);
+        assertEquals(0, cache.hitCount());
+    }
+}
@@ -0,0 +1,138 @@
+package org.cosline.client.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchResultCacheTest {
+
+    private final AtomicInteger searches = new AtomicInteger();
+    private final Function<SearchRequest, List<Document>> search = request -> {
+        searches.incrementAndGet();
+        Document document = new Document("doc-1", "content", new HashMap<>(Map.of("score", 0.9)));
+        document.setEmbedding(new float[] {1, 0});
+        return List.of(document);
+    };
+
+    @Test
+    void testRepeatedRequestsAreServedFromCache() {
+        SearchResultCache cache = new SearchResultCache(10, Duration.ofMinutes(1));
+
+        List<Document> first = cache.get(SearchRequest.query("red shoes").withTopK(3), search);
+        List<Document> second = cache.get(SearchRequest.query(" red  shoes ").withTopK(3), search);
+
+        assertEquals(1, searches.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals("doc-1", second.get(0).getId());
+        assertEquals(0.9, second.get(0).getMetadata().get("score"));
+        // Hits get their own documents, so callers cannot change the cached entry
+        second.get(0).getMetadata().put("score", 0.1);
+        assertEquals(0.9, cache.get(SearchRequest.query("red shoes").withTopK(3), search).get(0).getMetadata().get("score"));
+        assertNotSame(first.get(0), second.get(0));
+    }
+
+    @Test
+    void testTopKThresholdAndFilterArePartOfTheKey() {
+        SearchResultCache cache = new SearchResultCache(10, Duration.ofMinutes(1));
+
+        cache.get(SearchRequest.query("q").withTopK(3), search);
+        cache.get(SearchRequest.query("q").withTopK(4), search);
+        cache.get(SearchRequest.query("q").withTopK(4).withSimilarityThreshold(0.5), search);
+        cache.get(SearchRequest.query("q").withTopK(4).withSimilarityThreshold(0.5).withFilterExpression(eq("brand", "Dell")), search);
+        cache.get(SearchRequest.query("q").withTopK(4).withSimilarityThreshold(0.5).withFilterExpression(eq("brand", "Apple")), search);
+
+        assertEquals(5, searches.get());
+        assertEquals(0, cache.hitCount());
+    }
+
+    @Test
+    void testEquivalentFiltersShareOneCanonicalForm() {
+        Filter.Expression brand = eq("brand", "Dell");
+        Filter.Expression year = new Filter.Expression(Filter.ExpressionType.GTE, new Filter.Key("year"), new Filter.Value(2020));
+        Filter.Expression colors = new Filter.Expression(Filter.ExpressionType.IN, new Filter.Key("color"),
+                new Filter.Value(List.of("red", "blue", "red")));
+        Filter.Expression sortedColors = new Filter.Expression(Filter.ExpressionType.IN, new Filter.Key("\"color\""),
+                new Filter.Value(List.of("blue", "red")));
+
+        String canonical = SearchResultCache.canonicalFilter(and(brand, and(year, colors)));
+
+        assertEquals(canonical, SearchResultCache.canonicalFilter(and(and(sortedColors, brand), year)));
+        assertEquals(canonical, SearchResultCache.canonicalFilter(
+                and(new Filter.Group(and(year, brand)), new Filter.Group(sortedColors))));
+        assertNotEquals(canonical, SearchResultCache.canonicalFilter(
+                new Filter.Expression(Filter.ExpressionType.OR, brand, and(year, colors))));
+        // A string "2020" is not the number 2020
+        assertNotEquals(SearchResultCache.canonicalFilter(year), SearchResultCache.canonicalFilter(
+                new Filter.Expression(Filter.ExpressionType.GTE, new Filter.Key("year"), new Filter.Value("2020"))));
+        assertEquals("", SearchResultCache.canonicalFilter(null));
+    }
+
+    @Test
+    void testInvalidateDropsEntries() {
+        SearchResultCache cache = new SearchResultCache(10, Duration.ofMinutes(1));
+
+        cache.get(SearchRequest.query("q"), search);
+        cache.invalidate();
+        cache.get(SearchRequest.query("q"), search);
+        cache.get(SearchRequest.query("q"), search);
+
+        assertEquals(2, searches.get());
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    void testSearchOverlappingAWriteIsNotCached() {
+        SearchResultCache cache = new SearchResultCache(10, Duration.ofMinutes(1));
+
+        cache.get(SearchRequest.query("q"), request -> {
+            cache.invalidate();
+            return search.apply(request);
+        });
+        cache.get(SearchRequest.query("q"), search);
+
+        assertEquals(2, searches.get());
+        assertEquals(0, cache.hitCount());
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        SearchResultCache cache = new SearchResultCache(10, Duration.ofSeconds(30), now::get);
+
+        cache.get(SearchRequest.query("q"), search);
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        cache.get(SearchRequest.query("q"), search);
+
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    void testZeroSizeDisablesCaching() {
+        SearchResultCache cache = new SearchResultCache(0, Duration.ofMinutes(1));
+
+        cache.get(SearchRequest.query("q"), search);
+        cache.get(SearchRequest.query("q"), search);
+
+        assertEquals(2, searches.get());
+        assertEquals(0, cache.size());
+    }
+
+    private static Filter.Expression eq(String key, Object value) {
+        return new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key(key), new Filter.Value(value));
+    }
+
+    private static Filter.Expression and(Filter.Operand left, Filter.Operand right) {
+        return new Filter.Expression(Filter.ExpressionType.AND, left, right);
+    }
+}
@@ -0,0 +1,55 @@
+package org.cosline.client.distance;
+
+import org.cosline.client.model.Distance;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceFunctionTest {
+
+    private final float[] query = {1.0f, 0.0f};
+    private final float[] near = {0.9f, 0.1f};
+    private final float[] far = {-3.0f, 4.0f};
+
+    @Test
+    void testForDistanceSelectsMatchingMetric() {
+        for (Distance distance : Distance.values()) {
+            assertEquals(distance, DistanceFunctions.forDistance(distance).distance());
+        }
+        assertEquals(Distance.Cosine, DistanceFunctions.forDistance(null).distance());
+    }
+
+    @Test
+    void testCloserDocumentsScoreHigherForEveryMetric() {
+        for (Distance distance : Distance.values()) {
+            DistanceFunction function = DistanceFunctions.forDistance(distance);
+            assertTrue(function.score(query, near) > function.score(query, far), distance.name());
+        }
+    }
+
+    @Test
+    void testEuclidReportsDistanceAndMapsItToScore() {
+        DistanceFunction euclid = DistanceFunctions.forDistance(Distance.Euclid);
+
+        assertEquals(Math.sqrt(32.0), euclid.compare(query, far), 1e-5);
+        assertEquals(1.0, euclid.score(query, query), 1e-6);
+        assertEquals(1.0 / (1.0 + Math.sqrt(32.0)), euclid.score(query, far), 1e-6);
+    }
+
+    @Test
+    void testManhattanReportsDistanceAndMapsItToScore() {
+        DistanceFunction manhattan = DistanceFunctions.forDistance(Distance.Manhattan);
+
+        assertEquals(8.0, manhattan.compare(query, far), 1e-6);
+        assertEquals(1.0 / 9.0, manhattan.score(query, far), 1e-6);
+    }
+
+    @Test
+    void testDotAndCosineUseRawValueAsScore() {
+        DistanceFunction dot = DistanceFunctions.forDistance(Distance.Dot);
+        DistanceFunction cosine = DistanceFunctions.forDistance(Distance.Cosine);
+
+        assertEquals(-3.0, dot.score(query, far), 1e-6);
+        assertEquals(-0.6, cosine.score(query, far), 1e-6);
+    }
+}
@@ -0,0 +1,133 @@
+package org.cosline.client.distance;
+
+import org.cosline.client.store.CoslineVectorStore;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorKernelTest {
+
+    private static final int[] DIMENSIONS = {1, 3, 7, 8, 15, 16, 17, 31, 64, 100, 384, 768, 1536, 3072};
+
+    private final Random random = new Random(7);
+
+    @Test
+    void testScalarKernelMatchesLegacyImplementation() {
+        assertMatchesLegacy(VectorKernels.scalar());
+    }
+
+    @Test
+    void testDefaultKernelMatchesLegacyImplementation() {
+        assertMatchesLegacy(VectorKernels.get());
+    }
+
+    @Test
+    void testSimdKernelMatchesLegacyImplementationWhenAvailable() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return;
+        }
+        VectorKernel simd;
+        try {
+            simd = new PanamaVectorKernel();
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        assertMatchesLegacy(simd);
+    }
+
+    @Test
+    void testCoslineVectorStoreDelegatesToKernels() {
+        float[] x = randomVector(1536);
+        float[] y = randomVector(1536);
+
+        assertEquals(legacyCosine(x, y), CoslineVectorStore.cosineSimilarity(x, y), 1e-5);
+        assertEquals(legacyDot(x, y), CoslineVectorStore.dotProduct(x, y), 1e-3);
+        assertEquals(legacyDot(x, x), CoslineVectorStore.norm(x), 1e-3);
+        assertThrows(IllegalArgumentException.class, () -> CoslineVectorStore.cosineSimilarity(x, new float[3]));
+    }
+
+    @Test
+    void testZeroNormIsRejected() {
+        for (VectorKernel kernel : kernels()) {
+            assertThrows(IllegalArgumentException.class, () -> kernel.cosine(new float[16], randomVector(16)));
+        }
+    }
+
+    private void assertMatchesLegacy(VectorKernel kernel) {
+        for (int dimension : DIMENSIONS) {
+            for (int round = 0; round < 10; round++) {
+                float[] x = randomVector(dimension);
+                float[] y = randomVector(dimension);
+                String context = kernel.getClass().getSimpleName() + " dim=" + dimension;
+
+                assertEquals(legacyDot(x, y), kernel.dotProduct(x, y), 1e-4 * dimension, context);
+                assertEquals(legacyDot(x, x), kernel.squaredNorm(x), 1e-4 * dimension, context);
+                assertEquals(legacyCosine(x, y), kernel.cosine(x, y), 1e-5, context);
+                assertEquals(1.0, kernel.cosine(x, x), 1e-5, context);
+                assertEquals(referenceSquaredEuclidean(x, y), kernel.squaredEuclidean(x, y), 1e-4 * dimension, context);
+                assertEquals(referenceManhattan(x, y), kernel.manhattan(x, y), 1e-4 * dimension, context);
+
+                // Off-heap row at a non-zero offset
+                MemorySegment segment = Arena.ofAuto().allocate((long) (dimension + 16) * Float.BYTES, 64);
+                MemorySegment.copy(y, 0, segment, ValueLayout.JAVA_FLOAT, 64, dimension);
+                assertEquals(legacyDot(x, y), kernel.dotProduct(x, segment, 64), 1e-4 * dimension, context);
+                assertEquals(referenceSquaredEuclidean(x, y), kernel.squaredEuclidean(x, segment, 64), 1e-4 * dimension, context);
+                assertEquals(referenceManhattan(x, y), kernel.manhattan(x, segment, 64), 1e-4 * dimension, context);
+            }
+        }
+    }
+
+    private List<VectorKernel> kernels() {
+        List<VectorKernel> kernels = new ArrayList<>();
+        kernels.add(VectorKernels.scalar());
+        kernels.add(VectorKernels.get());
+        return kernels;
+    }
+
+    private float[] randomVector(int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = random.nextFloat() * 2 - 1;
+        }
+        return vector;
+    }
+
+    // The pre-kernel implementation of CoslineVectorStore, kept as the reference
+    private static float legacyDot(float[] vectorX, float[] vectorY) {
+        float result = 0;
+        for (int i = 0; i < vectorX.length; ++i) {
+            result += vectorX[i] * vectorY[i];
+        }
+        return result;
+    }
+
+    private static double legacyCosine(float[] vectorX, float[] vectorY) {
+        float dotProduct = legacyDot(vectorX, vectorY);
+        float normX = legacyDot(vectorX, vectorX);
+        float normY = legacyDot(vectorY, vectorY);
+        return dotProduct / (Math.sqrt(normX) * Math.sqrt(normY));
+    }
+
+    private static float referenceSquaredEuclidean(float[] vectorX, float[] vectorY) {
+        float result = 0;
+        for (int i = 0; i < vectorX.length; ++i) {
+            result += (vectorX[i] - vectorY[i]) * (vectorX[i] - vectorY[i]);
+        }
+        return result;
+    }
+
+    private static float referenceManhattan(float[] vectorX, float[] vectorY) {
+        float result = 0;
+        for (int i = 0; i < vectorX.length; ++i) {
+            result += Math.abs(vectorX[i] - vectorY[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package org.cosline.client.filtercriteria;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetadataPredicateCompilerTest {
+
+    private MetadataPredicateCompiler compiler;
+    private Map<String, Object> metadata;
+
+    @BeforeEach
+    void setUp() {
+        compiler = new MetadataPredicateCompiler();
+        metadata = new HashMap<>();
+        metadata.put("country", "UK");
+        metadata.put("year", 2020);
+        metadata.put("rating", 4.5);
+        metadata.put("active", true);
+    }
+
+    @Test
+    void testEqualityAndInequality() {
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("country"), new Filter.Value("UK"))));
+        assertFalse(test(new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("country"), new Filter.Value("NL"))));
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("year"), new Filter.Value(2020.0))));
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("active"), new Filter.Value(true))));
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.NE, new Filter.Key("country"), new Filter.Value("NL"))));
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.NE, new Filter.Key("missing"), new Filter.Value("NL"))));
+    }
+
+    @Test
+    void testNumericAndStringComparisons() {
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.GT, new Filter.Key("year"), new Filter.Value(2019))));
+        assertFalse(test(new Filter.Expression(Filter.ExpressionType.GT, new Filter.Key("year"), new Filter.Value(2020))));
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.GTE, new Filter.Key("year"), new Filter.Value(2020))));
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.LT, new Filter.Key("rating"), new Filter.Value(5))));
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.LTE, new Filter.Key("rating"), new Filter.Value(4.5))));
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.LT, new Filter.Key("country"), new Filter.Value("US"))));
+        assertFalse(test(new Filter.Expression(Filter.ExpressionType.GT, new Filter.Key("country"), new Filter.Value(1))));
+        assertFalse(test(new Filter.Expression(Filter.ExpressionType.LT, new Filter.Key("missing"), new Filter.Value(1))));
+    }
+
+    @Test
+    void testInAndNotIn() {
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.IN, new Filter.Key("country"), new Filter.Value(Arrays.asList("UK", "NL")))));
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.IN, new Filter.Key("year"), new Filter.Value(Arrays.asList(2019, 2020)))));
+        assertFalse(test(new Filter.Expression(Filter.ExpressionType.NIN, new Filter.Key("country"), new Filter.Value(Arrays.asList("UK", "NL")))));
+        assertThrows(IllegalArgumentException.class, () ->
+                compiler.compile(new Filter.Expression(Filter.ExpressionType.IN, new Filter.Key("country"), new Filter.Value("UK"))));
+    }
+
+    @Test
+    void testLogicalOperators() {
+        Filter.Expression uk = new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("country"), new Filter.Value("UK"));
+        Filter.Expression old = new Filter.Expression(Filter.ExpressionType.LT, new Filter.Key("year"), new Filter.Value(2000));
+
+        assertFalse(test(new Filter.Expression(Filter.ExpressionType.AND, uk, old)));
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.OR, uk, old)));
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.NOT, old)));
+        assertTrue(test(new Filter.Expression(Filter.ExpressionType.AND, new Filter.Group(uk),
+                new Filter.Expression(Filter.ExpressionType.NOT, new Filter.Group(old)))));
+    }
+
+    @Test
+    void testCompiledPredicatesAreCachedPerExpression() {
+        Predicate<Map<String, Object>> first = compiler.compile(
+                new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("country"), new Filter.Value("UK")));
+        Predicate<Map<String, Object>> second = compiler.compile(
+                new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("country"), new Filter.Value("UK")));
+
+        assertSame(first, second);
+        assertEquals(1, compiler.cacheSize());
+    }
+
+    private boolean test(Filter.Expression expression) {
+        return compiler.compile(expression).test(metadata);
+    }
+}
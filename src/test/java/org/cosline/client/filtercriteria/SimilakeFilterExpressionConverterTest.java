@@ -4,11 +4,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.ai.vectorstore.filter.Filter;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CoslineFilterExpressionConverterTest {
 
@@ -206,6 +211,69 @@ class CoslineFilterExpressionConverterTest {
         testOperator(Filter.ExpressionType.GTE, "gte", "rating", 4.5);
     }
 
+    @Test
+    void testConverterIsReusable() {
+        Filter.Expression first = new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("name"), new Filter.Value("test"));
+        Filter.Expression second = new Filter.Expression(Filter.ExpressionType.GT, new Filter.Key("age"), new Filter.Value(25));
+
+        assertEquals("metadata.name.eq=test", converter.convertToQueryParams(first));
+        assertEquals("metadata.age.gt=25", converter.convertToQueryParams(second));
+        assertEquals("metadata.name.eq=test", converter.convertToQueryParams(first));
+    }
+
+    @Test
+    void testKeysAndValuesAreUrlEncoded() {
+        Filter.Expression expression = new Filter.Expression(
+                Filter.ExpressionType.AND,
+                new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("'product name'"), new Filter.Value("R&D laptop=fast")),
+                new Filter.Expression(Filter.ExpressionType.IN, new Filter.Key("city"), new Filter.Value(List.of("São Paulo", "a,b")))
+        );
+
+        assertEquals("metadata.product%20name.eq=R%26D%20laptop%3Dfast&metadata.city.in=S%C3%A3o%20Paulo,a%2Cb",
+                converter.convertToQueryParams(expression));
+    }
+
+    @Test
+    void testGroupedOperands() {
+        Filter.Expression expression = new Filter.Expression(
+                Filter.ExpressionType.AND,
+                new Filter.Group(new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("brand"), new Filter.Value("Dell"))),
+                new Filter.Group(new Filter.Expression(Filter.ExpressionType.LT, new Filter.Key("price"), new Filter.Value(1000)))
+        );
+
+        assertEquals("metadata.brand.eq=Dell&metadata.price.lt=1000", converter.convertToQueryParams(expression));
+    }
+
+    @Test
+    void testEqualExpressionsShareOneCacheEntry() {
+        converter.convertToQueryParams(new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("brand"), new Filter.Value("Dell")));
+        converter.convertToQueryParams(new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("brand"), new Filter.Value("Dell")));
+        converter.convertToQueryParams(new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("brand"), new Filter.Value("HP")));
+
+        assertEquals(2, converter.cacheSize());
+    }
+
+    @Test
+    void testConcurrentConversions() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                int n = i % 50;
+                results.add(executor.submit(() -> converter.convertToQueryParams(new Filter.Expression(
+                        Filter.ExpressionType.AND,
+                        new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("brand"), new Filter.Value("b" + n)),
+                        new Filter.Expression(Filter.ExpressionType.GTE, new Filter.Key("year"), new Filter.Value(n))
+                )).equals("metadata.brand.eq=b" + n + "&metadata.year.gte=" + n)));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private void testOperator(Filter.ExpressionType type, String operator, String key, Object value) {
         converter = new CoslineFilterExpressionConverter(); // Reset state
         Filter.Expression expression = new Filter.Expression(
@@ -0,0 +1,135 @@
+package org.cosline.client.index;
+
+import org.cosline.client.distance.DistanceFunctions;
+import org.cosline.client.model.Distance;
+import org.cosline.client.store.LocalSearchOptions;
+import org.cosline.client.store.LocalVectorIndex;
+import org.cosline.client.store.TopKCollector;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswGraphTest {
+
+    private static final int DIMENSION = 32;
+    private static final int DOCUMENTS = 5_000;
+    private static final int QUERIES = 100;
+    private static final int K = 10;
+
+    @Test
+    void testRecallAtTenAgainstBruteForce() {
+        LocalVectorIndex index = newIndex(Distance.Cosine);
+        Random random = new Random(1);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            index.add(document("doc-" + i, randomVector(random)));
+        }
+
+        assertTrue(recallAtK(index, random, LocalSearchOptions.defaults()) >= 0.95);
+    }
+
+    @Test
+    void testRecallWithConcurrentInserts() throws Exception {
+        LocalVectorIndex index = newIndex(Distance.Euclid);
+        Random random = new Random(2);
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documents.add(document("doc-" + i, randomVector(random)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < documents.size(); i += 4) {
+                        index.add(documents.get(i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(DOCUMENTS, index.size());
+        assertTrue(recallAtK(index, random, LocalSearchOptions.defaults()) >= 0.95);
+    }
+
+    @Test
+    void testLargerEfSearchDoesNotLowerRecall() {
+        LocalVectorIndex index = newIndex(Distance.Cosine);
+        Random random = new Random(3);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            index.add(document("doc-" + i, randomVector(random)));
+        }
+
+        double narrow = recallAtK(index, new Random(4), LocalSearchOptions.withEfSearch(K));
+        double wide = recallAtK(index, new Random(4), LocalSearchOptions.withEfSearch(200));
+        assertTrue(wide >= narrow);
+        assertTrue(wide >= 0.99);
+    }
+
+    @Test
+    void testRetiredDocumentsAreNotReturned() {
+        LocalVectorIndex index = newIndex(Distance.Cosine);
+        index.add(document("a", new float[]{1, 0}));
+        index.add(document("b", new float[]{0, 1}));
+        index.add(document("a", new float[]{0.7f, 0.7f}));
+
+        TopKCollector hits = index.search(new float[]{1, 0}, 5, -1.0);
+
+        assertEquals(2, hits.size());
+        assertEquals(0.7f, index.document(hits.doc(0)).getEmbedding()[0], 0.0f);
+    }
+
+    private double recallAtK(LocalVectorIndex index, Random random, LocalSearchOptions options) {
+        int found = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            float[] query = randomVector(random);
+            TopKCollector exact = index.search(query, K, -Double.MAX_VALUE, LocalSearchOptions.exactSearch());
+            TopKCollector approximate = index.search(query, K, -Double.MAX_VALUE, options);
+            Set<Integer> expected = new HashSet<>();
+            for (int rank = 0; rank < exact.size(); rank++) {
+                expected.add(exact.doc(rank));
+            }
+            for (int rank = 0; rank < approximate.size(); rank++) {
+                if (expected.contains(approximate.doc(rank))) {
+                    found++;
+                }
+            }
+        }
+        return found / (double) (QUERIES * K);
+    }
+
+    private LocalVectorIndex newIndex(Distance distance) {
+        return new LocalVectorIndex(DistanceFunctions.forDistance(distance), new HnswParameters(16, 100, 64));
+    }
+
+    private Document document(String id, float[] embedding) {
+        Document document = new Document(id, "content " + id, new HashMap<>());
+        document.setEmbedding(embedding);
+        return document;
+    }
+
+    private float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
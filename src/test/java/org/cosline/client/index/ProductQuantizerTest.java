@@ -0,0 +1,124 @@
+package org.cosline.client.index;
+
+import org.cosline.client.distance.DistanceFunctions;
+import org.cosline.client.model.Distance;
+import org.cosline.client.store.LocalSearchOptions;
+import org.cosline.client.store.LocalVectorIndex;
+import org.cosline.client.store.TopKCollector;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductQuantizerTest {
+
+    private static final int DIMENSION = 64;
+    private static final int DOCUMENTS = 2_000;
+    private static final int QUERIES = 50;
+    private static final int K = 10;
+
+    @Test
+    void testEncodeDecodeShape() {
+        float[][] sample = randomVectors(new Random(1), 500, 10);
+        ProductQuantizer quantizer = ProductQuantizer.train(sample, 3, 4, 7L);
+
+        assertEquals(10, quantizer.dimension());
+        assertEquals(3, quantizer.codeSize());
+        byte[] codes = new byte[2 * quantizer.codeSize()];
+        quantizer.encode(sample[0], codes, quantizer.codeSize());
+        assertEquals(10, quantizer.decode(codes, quantizer.codeSize()).length);
+    }
+
+    @Test
+    void testLookupMatchesDecodedVector() {
+        float[][] sample = randomVectors(new Random(2), 1_000, DIMENSION);
+        ProductQuantizer quantizer = ProductQuantizer.train(sample, 8, 4, 7L);
+        float[] query = randomVectors(new Random(3), 1, DIMENSION)[0];
+        byte[] codes = new byte[quantizer.codeSize()];
+        quantizer.encode(sample[5], codes, 0);
+        float[] decoded = quantizer.decode(codes, 0);
+
+        float dot = 0;
+        float squared = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            dot += query[i] * decoded[i];
+            squared += (query[i] - decoded[i]) * (query[i] - decoded[i]);
+        }
+        assertEquals(dot, quantizer.lookup(quantizer.distanceTable(query, Distance.Dot), codes, 0), 1e-3);
+        assertEquals(squared, quantizer.lookup(quantizer.distanceTable(query, Distance.Euclid), codes, 0), 1e-2);
+    }
+
+    @Test
+    void testRerankedSearchKeepsRecall() {
+        LocalVectorIndex index = newIndex(Distance.Cosine, true);
+
+        assertTrue(index.isQuantized());
+        assertTrue(recallAtK(index, new Random(5)) >= 0.9);
+        assertNotNull(index.get("doc-0").getEmbedding());
+    }
+
+    @Test
+    void testCompressedSearchDropsFullVectors() {
+        LocalVectorIndex index = newIndex(Distance.Euclid, false);
+
+        assertTrue(index.isQuantized());
+        assertTrue(recallAtK(index, new Random(6)) >= 0.5);
+        assertEquals(0, index.get("doc-0").getEmbedding().length);
+        assertEquals(DIMENSION, index.vector(0).length);
+    }
+
+    private LocalVectorIndex newIndex(Distance distance, boolean keepFullVectors) {
+        LocalVectorIndex index = new LocalVectorIndex(DistanceFunctions.forDistance(distance), null,
+                new QuantizationParameters(16, 1_000, 6, keepFullVectors, 8));
+        float[][] vectors = randomVectors(new Random(4), DOCUMENTS, DIMENSION);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            Document document = new Document("doc-" + i, "content " + i, new HashMap<>());
+            document.setEmbedding(vectors[i]);
+            index.add(document);
+        }
+        return index;
+    }
+
+    // Compares against an exact scan over a second, unquantized index of the same vectors
+    private double recallAtK(LocalVectorIndex index, Random random) {
+        LocalVectorIndex exactIndex = new LocalVectorIndex(DistanceFunctions.forDistance(index.distance()));
+        float[][] vectors = randomVectors(new Random(4), DOCUMENTS, DIMENSION);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            Document document = new Document("doc-" + i, "content " + i, new HashMap<>());
+            document.setEmbedding(vectors[i]);
+            exactIndex.add(document);
+        }
+
+        int found = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            float[] query = randomVectors(random, 1, DIMENSION)[0];
+            TopKCollector exact = exactIndex.search(query, K, -Double.MAX_VALUE);
+            TopKCollector approximate = index.search(query, K, -Double.MAX_VALUE, LocalSearchOptions.defaults());
+            Set<Integer> expected = new HashSet<>();
+            for (int rank = 0; rank < exact.size(); rank++) {
+                expected.add(exact.doc(rank));
+            }
+            for (int rank = 0; rank < approximate.size(); rank++) {
+                if (expected.contains(approximate.doc(rank))) {
+                    found++;
+                }
+            }
+        }
+        return found / (double) (QUERIES * K);
+    }
+
+    private float[][] randomVectors(Random random, int count, int dimension) {
+        float[][] vectors = new float[count][dimension];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+        return vectors;
+    }
+}
@@ -0,0 +1,41 @@
+package org.cosline.client.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorArenaTest {
+
+    @Test
+    void testRowsAreAlignedAndSurviveGrowth() {
+        VectorArena arena = new VectorArena(3, 4, Arena.ofAuto());
+        for (int ordinal = 0; ordinal < 10; ordinal++) {
+            arena.set(ordinal, new float[]{ordinal, ordinal + 1, ordinal + 2});
+        }
+
+        assertEquals(64, arena.stride());
+        assertEquals(3 * 4 * 64, arena.byteSize());
+        for (int ordinal = 0; ordinal < 10; ordinal++) {
+            assertArrayEquals(new float[]{ordinal, ordinal + 1, ordinal + 2}, arena.get(ordinal));
+            assertEquals(0, (arena.segment(ordinal).address() + arena.offset(ordinal)) % 64);
+        }
+    }
+
+    @Test
+    void testOverwriteReplacesRow() {
+        VectorArena arena = new VectorArena(2);
+        arena.set(0, new float[]{1, 2});
+        arena.set(0, new float[]{3, 4});
+
+        assertArrayEquals(new float[]{3, 4}, arena.get(0));
+    }
+
+    @Test
+    void testDimensionMismatchIsRejected() {
+        VectorArena arena = new VectorArena(2);
+
+        assertThrows(IllegalArgumentException.class, () -> arena.set(0, new float[3]));
+    }
+}
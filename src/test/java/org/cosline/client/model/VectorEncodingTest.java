@@ -0,0 +1,56 @@
+package org.cosline.client.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorEncodingTest {
+
+    @Test
+    void testEncodesLittleEndianFloat32() {
+        byte[] bytes = Base64.getDecoder().decode(VectorEncoding.encode(new float[] {1.0f, -2.5f}));
+
+        // 1.0f is 0x3F800000 and -2.5f is 0xC0200000, least significant byte first
+        assertArrayEquals(new byte[] {0, 0, (byte) 0x80, 0x3F, 0, 0, 0x20, (byte) 0xC0}, bytes);
+        assertArrayEquals(new float[] {1.0f, -2.5f}, VectorEncoding.decode(VectorEncoding.encode(new float[] {1.0f, -2.5f})));
+    }
+
+    @Test
+    void testDecodesIntoReusedBuffer() {
+        float[] buffer = new float[3];
+        assertEquals(3, VectorEncoding.decode(Base64.getDecoder().decode(VectorEncoding.encode(new float[] {1, 2, 3})), buffer));
+        assertArrayEquals(new float[] {1, 2, 3}, buffer);
+
+        // Too long for the buffer: the length is reported and the buffer left alone
+        assertEquals(4, VectorEncoding.decode(Base64.getDecoder().decode(VectorEncoding.encode(new float[] {4, 5, 6, 7})), buffer));
+        assertArrayEquals(new float[] {1, 2, 3}, buffer);
+
+        assertThrows(IllegalArgumentException.class, () -> VectorEncoding.decode(new byte[5], buffer));
+    }
+
+    @Test
+    void testNegotiationTokens() {
+        assertEquals(VectorEncoding.BASE64_F32LE, VectorEncoding.fromToken("base64-f32le"));
+        assertEquals(VectorEncoding.JSON, VectorEncoding.fromToken("json"));
+        assertEquals(VectorEncoding.JSON, VectorEncoding.fromToken("msgpack"));
+        assertEquals(VectorEncoding.JSON, VectorEncoding.fromToken(null));
+    }
+
+    @Test
+    void testModuleReadsBothEncodingsAndWritesConfiguredOne() throws Exception {
+        ObjectMapper jsonMapper = new ObjectMapper().registerModule(new VectorEncodingModule(VectorEncoding.JSON));
+        ObjectMapper binaryMapper = new ObjectMapper().registerModule(new VectorEncodingModule(VectorEncoding.BASE64_F32LE));
+        SearchQuery query = new SearchQuery(new float[] {0.25f, -1.0f, 3.5f}, 5, 0.5);
+
+        String json = jsonMapper.writeValueAsString(query);
+        String binary = binaryMapper.writeValueAsString(query);
+
+        assertTrue(json.contains("\"vector\":[0.25,-1.0,3.5]"), json);
+        assertTrue(binary.contains("\"vector\":\"" + VectorEncoding.encode(query.getVector()) + "\""), binary);
+        assertArrayEquals(query.getVector(), jsonMapper.readValue(binary, SearchQuery.class).getVector());
+        assertArrayEquals(query.getVector(), binaryMapper.readValue(json, SearchQuery.class).getVector());
+    }
+}
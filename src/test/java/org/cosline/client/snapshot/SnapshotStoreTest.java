@@ -0,0 +1,132 @@
+package org.cosline.client.snapshot;
+
+import org.cosline.client.distance.DistanceFunctions;
+import org.cosline.client.index.VectorArena;
+import org.cosline.client.model.Distance;
+import org.cosline.client.store.LocalVectorIndex;
+import org.cosline.client.store.TopKCollector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotStoreTest {
+
+    private static final int DIMENSION = 24;
+    private static final int DOCUMENTS = 2 * VectorArena.DEFAULT_CHUNK_ROWS + 300;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReopenedIndexMatchesOriginal() throws IOException {
+        LocalVectorIndex original = newIndex();
+        original.openSnapshot(directory);
+        Random random = new Random(1);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            original.add(document("doc-" + i, randomVector(random)));
+        }
+        original.add(document("doc-5", randomVector(random)));
+        original.close();
+
+        assertTrue(Files.exists(directory.resolve("segment-00000001.cvs")));
+        assertFalse(Files.exists(directory.resolve("segment-00000002.cvs")));
+
+        LocalVectorIndex reopened = newIndex();
+        reopened.openSnapshot(directory);
+
+        assertEquals(DOCUMENTS, reopened.size());
+        Document restored = reopened.get("doc-7");
+        assertEquals("content doc-7", restored.getContent());
+        assertEquals("doc-7", restored.getMetadata().get("id"));
+        assertArrayEquals(original.get("doc-7").getEmbedding(), restored.getEmbedding());
+        assertArrayEquals(original.get("doc-5").getEmbedding(), reopened.get("doc-5").getEmbedding());
+
+        float[] query = randomVector(random);
+        TopKCollector expected = original.search(query, 10, -1.0);
+        TopKCollector actual = reopened.search(query, 10, -1.0);
+        assertEquals(expected.size(), actual.size());
+        for (int rank = 0; rank < expected.size(); rank++) {
+            assertEquals(expected.doc(rank), actual.doc(rank));
+            assertEquals(expected.score(rank), actual.score(rank), 1e-6);
+        }
+        reopened.close();
+    }
+
+    @Test
+    void testAddsAfterReopenAreKept() throws IOException {
+        LocalVectorIndex first = newIndex();
+        first.openSnapshot(directory);
+        first.add(document("a", new float[DIMENSION]));
+        first.close();
+
+        LocalVectorIndex second = newIndex();
+        second.openSnapshot(directory);
+        second.add(document("b", randomVector(new Random(2))));
+        second.close();
+
+        LocalVectorIndex third = newIndex();
+        third.openSnapshot(directory);
+        assertEquals(2, third.size());
+        assertNotNull(third.get("a"));
+        assertNotNull(third.get("b"));
+        third.close();
+    }
+
+    @Test
+    void testTornJournalRecordIsDropped() throws IOException {
+        LocalVectorIndex index = newIndex();
+        index.openSnapshot(directory);
+        index.add(document("a", randomVector(new Random(3))));
+        index.add(document("b", randomVector(new Random(4))));
+        index.close();
+
+        Path journal = directory.resolve("journal.log");
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        LocalVectorIndex reopened = newIndex();
+        reopened.openSnapshot(directory);
+        assertEquals(1, reopened.size());
+        assertNull(reopened.get("b"));
+        reopened.add(document("c", randomVector(new Random(5))));
+        reopened.close();
+
+        LocalVectorIndex last = newIndex();
+        last.openSnapshot(directory);
+        assertEquals(2, last.size());
+        assertNotNull(last.get("c"));
+        last.close();
+    }
+
+    private LocalVectorIndex newIndex() {
+        return new LocalVectorIndex(DistanceFunctions.forDistance(Distance.Euclid));
+    }
+
+    private Document document(String id, float[] embedding) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("id", id);
+        Document document = new Document(id, "content " + id, metadata);
+        document.setEmbedding(embedding);
+        return document;
+    }
+
+    private float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
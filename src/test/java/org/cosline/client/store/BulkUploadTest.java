@@ -0,0 +1,87 @@
+package org.cosline.client.store;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkUploadTest {
+
+    @Test
+    void testDocumentsArePackedIntoBoundedArrays() {
+        List<byte[]> documents = List.of(bytes("{\"id\":1}"), bytes("{\"id\":2}"), bytes("{\"id\":3}"));
+
+        List<BulkUpload.JsonArray> arrays = BulkUpload.toJsonArrays(documents, 20);
+
+        assertEquals(2, arrays.size());
+        assertEquals("[{\"id\":1},{\"id\":2}]", text(arrays.get(0).body()));
+        assertEquals("[{\"id\":3}]", text(arrays.get(1).body()));
+        assertTrue(arrays.get(0).body().length <= 20);
+        assertEquals(0, arrays.get(0).from());
+        assertEquals(2, arrays.get(0).to());
+        assertEquals(2, arrays.get(1).from());
+        assertEquals(3, arrays.get(1).to());
+    }
+
+    @Test
+    void testOversizedDocumentIsSentAlone() {
+        List<byte[]> documents = List.of(bytes("{\"id\":1}"), bytes("{\"content\":\"long text\"}"), bytes("{\"id\":3}"));
+
+        List<BulkUpload.JsonArray> arrays = BulkUpload.toJsonArrays(documents, 12);
+
+        assertEquals(3, arrays.size());
+        assertEquals("[{\"content\":\"long text\"}]", text(arrays.get(1).body()));
+        assertTrue(BulkUpload.toJsonArrays(List.of(), 12).isEmpty());
+    }
+
+    @Test
+    void testTransientFailuresAreRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = BulkUpload.withRetry(3, 1, () -> {
+            int call = calls.incrementAndGet();
+            if (call == 1) {
+                throw new ResourceAccessException("connection reset");
+            }
+            if (call == 2) {
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testRetriesStopAtMaxAttemptsAndSkipClientErrors() {
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(ResourceAccessException.class, () -> BulkUpload.withRetry(2, 1, () -> {
+            calls.incrementAndGet();
+            throw new ResourceAccessException("connection refused");
+        }));
+        assertEquals(2, calls.get());
+
+        calls.set(0);
+        assertThrows(HttpClientErrorException.class, () -> BulkUpload.withRetry(3, 1, () -> {
+            calls.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+        }));
+        assertEquals(1, calls.get());
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] json) {
+        return new String(json, StandardCharsets.UTF_8);
+    }
+}
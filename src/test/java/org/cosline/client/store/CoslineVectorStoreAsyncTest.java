@@ -0,0 +1,78 @@
+package org.cosline.client.store;
+
+import org.cosline.client.model.Distance;
+import org.cosline.client.properties.CoslineProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoslineVectorStoreAsyncTest {
+
+    // Records the calling thread of every embedding call, then fails it so no request reaches the server
+    private final ConcurrentLinkedQueue<Thread> embeddingThreads = new ConcurrentLinkedQueue<>();
+    private CoslineVectorStore vectorStore;
+
+    @BeforeEach
+    void init() {
+        EmbeddingModel embeddingModel = (EmbeddingModel) Proxy.newProxyInstance(EmbeddingModel.class.getClassLoader(),
+                new Class<?>[] {EmbeddingModel.class}, (proxy, method, args) -> {
+                    embeddingThreads.add(Thread.currentThread());
+                    throw new IllegalStateException("embedding unavailable");
+                });
+        CoslineProperties properties = new CoslineProperties();
+        properties.setHost("localhost");
+        properties.setPort(6767);
+        properties.setCollectionName("vector_store");
+        properties.setDistance(Distance.Cosine);
+        vectorStore = new CoslineVectorStore(embeddingModel, properties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        vectorStore.destroy();
+    }
+
+    @Test
+    void testSearchesRunOnVirtualThreads() {
+        List<CompletableFuture<?>> searches = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            searches.add(vectorStore.searchAsync(SearchRequest.query("query " + i)));
+        }
+
+        for (CompletableFuture<?> search : searches) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> search.get(5, TimeUnit.SECONDS));
+            assertEquals("embedding unavailable", failure.getCause().getMessage());
+        }
+        assertEquals(100, embeddingThreads.size());
+        assertTrue(embeddingThreads.stream().allMatch(Thread::isVirtual));
+    }
+
+    @Test
+    void testCustomExecutorIsUsed() {
+        AtomicInteger tasks = new AtomicInteger();
+        vectorStore.setAsyncExecutor(task -> {
+            tasks.incrementAndGet();
+            task.run();
+        });
+
+        CompletableFuture<List<Document>> search = vectorStore.searchAsync(SearchRequest.query("query"));
+
+        assertTrue(search.isCompletedExceptionally());
+        assertEquals(1, tasks.get());
+        assertFalse(embeddingThreads.peek().isVirtual());
+    }
+}
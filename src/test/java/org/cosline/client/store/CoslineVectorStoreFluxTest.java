@@ -0,0 +1,161 @@
+package org.cosline.client.store;
+
+import org.cosline.client.model.Distance;
+import org.cosline.client.model.VectorEncoding;
+import org.cosline.client.properties.CoslineProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.cosline.client.store.CoslineVectorStoreWireTest.documents;
+import static org.cosline.client.store.CoslineVectorStoreWireTest.embeddingModel;
+import static org.cosline.client.store.CoslineVectorStoreWireTest.payloadReads;
+import static org.cosline.client.store.CoslineVectorStoreWireTest.properties;
+import static org.cosline.client.store.CoslineVectorStoreWireTest.searches;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the reactive search API against {@link StandInCoslineServer}. Held responses stay
+ * incomplete until the server is closed, so anything a test receives from one was
+ * emitted before the payload had been read to its end.
+ */
+class CoslineVectorStoreFluxTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Test
+    void testPayloadsAreEmittedWhileTheResponseIsStillBeingRead() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, false)) {
+            CoslineVectorStore vectorStore = vectorStore(server);
+            try {
+                vectorStore.add(documents(0, 8));
+                server.holdNextResponse(2);
+
+                Document first = vectorStore.getDocumentsFromApiFlux(SearchRequest.query("text-3")).blockFirst(TIMEOUT);
+
+                assertEquals("doc-0", first.getId());
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testServerHitsAreEmittedWhileTheResponseIsStillBeingRead() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+            CoslineVectorStore vectorStore = vectorStore(server);
+            try {
+                vectorStore.add(documents(0, 8));
+                server.holdNextResponse(1);
+
+                Document first = vectorStore.doSimilaritySearchFlux(SearchRequest.query("text-3").withTopK(4)).blockFirst(TIMEOUT);
+
+                assertEquals("doc-3", first.getId());
+                assertEquals(0, payloadReads(server));
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testDistanceThresholdIsAppliedToServerHitsOnTheClient() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+            server.rankByEuclid(true);
+            CoslineProperties properties = properties(server, VectorEncoding.JSON, 8);
+            properties.setDistance(Distance.Euclid);
+            CoslineVectorStore vectorStore = new CoslineVectorStore(embeddingModel(), properties);
+            try {
+                vectorStore.add(documents(0, 8));
+                List<Document> results = vectorStore.doSimilaritySearchFlux(
+                        SearchRequest.query("text-2").withTopK(3).withSimilarityThreshold(0.5)).collectList().block(TIMEOUT);
+
+                assertEquals(List.of("doc-2"), results.stream().map(Document::getId).toList());
+                assertEquals(0, payloadReads(server));
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testCancellingReleasesTheConnection() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, false)) {
+            CoslineProperties properties = properties(server, VectorEncoding.JSON, 8);
+            properties.setMaxConnectionsPerHost(1);
+            CoslineVectorStore vectorStore = new CoslineVectorStore(embeddingModel(), properties);
+            try {
+                vectorStore.add(documents(0, 8));
+                server.holdNextResponse(1);
+
+                // Taking the first payload cancels the rest of the still-held response
+                assertNotNull(vectorStore.getDocumentsFromApiFlux(SearchRequest.query("text-3")).blockFirst(TIMEOUT));
+                // With one connection per host, this only gets through if the cancelled exchange gave its connection back
+                List<Document> documents = vectorStore.getDocumentsFromApiFlux(SearchRequest.query("text-3")).collectList().block(TIMEOUT);
+
+                assertEquals(8, documents.size());
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testMissingSearchEndpointFallsBackToClientRanking() throws Exception {
+        for (int status : new int[] {404, 405, 501}) {
+            try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+                server.failSearch(status);
+                CoslineVectorStore vectorStore = vectorStore(server);
+                try {
+                    vectorStore.add(documents(0, 8));
+                    List<Document> first = vectorStore.doSimilaritySearchFlux(SearchRequest.query("text-3").withTopK(2))
+                            .collectList().block(TIMEOUT);
+                    List<Document> second = vectorStore.doSimilaritySearchFlux(SearchRequest.query("text-6").withTopK(2))
+                            .collectList().block(TIMEOUT);
+
+                    assertEquals("doc-3", first.get(0).getId(), "status " + status);
+                    assertEquals(2, first.size(), "status " + status);
+                    assertEquals("doc-6", second.get(0).getId(), "status " + status);
+                    // The endpoint is only tried once; later searches go straight to /payloads
+                    assertEquals(1, searches(server), "status " + status);
+                    assertEquals(2, payloadReads(server), "status " + status);
+                } finally {
+                    vectorStore.destroy();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testServerErrorIsRaisedWithoutFallback() throws Exception {
+        for (int status : new int[] {500, 503}) {
+            try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+                server.failSearch(status);
+                CoslineVectorStore vectorStore = vectorStore(server);
+                try {
+                    vectorStore.add(documents(0, 4));
+
+                    WebClientResponseException error = assertThrows(WebClientResponseException.class,
+                            () -> vectorStore.doSimilaritySearchFlux(SearchRequest.query("text-1")).collectList().block(TIMEOUT));
+
+                    assertEquals(status, error.getStatusCode().value());
+                    assertEquals(0, payloadReads(server));
+                    // A transient failure does not switch the store to client ranking
+                    server.failSearch(0);
+                    assertEquals("doc-1", vectorStore.doSimilaritySearchFlux(SearchRequest.query("text-1")).blockFirst(TIMEOUT).getId());
+                    assertEquals(0, payloadReads(server));
+                } finally {
+                    vectorStore.destroy();
+                }
+            }
+        }
+    }
+
+    private static CoslineVectorStore vectorStore(StandInCoslineServer server) {
+        return new CoslineVectorStore(embeddingModel(), properties(server, VectorEncoding.JSON, 8));
+    }
+}
@@ -0,0 +1,95 @@
+package org.cosline.client.store;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.cosline.client.model.VectorEncoding;
+import org.cosline.client.properties.CoslineProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.cosline.client.store.CoslineVectorStoreWireTest.documents;
+import static org.cosline.client.store.CoslineVectorStoreWireTest.embeddingModel;
+import static org.cosline.client.store.CoslineVectorStoreWireTest.properties;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that ingestion and each search path record into the store's meters.
+ */
+class CoslineVectorStoreMetricsTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testIngestAndServerSearchAreRecorded() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+            CoslineVectorStore vectorStore = new CoslineVectorStore(embeddingModel(),
+                    properties(server, VectorEncoding.JSON, 4), registry);
+            try {
+                vectorStore.add(documents(0, 8));
+
+                assertEquals(2, registry.get("cosline.embedding").tag("source", "document").timer().count());
+                assertEquals(8.0, registry.get("cosline.documents.added").counter().count());
+                assertEquals(2, registry.get("cosline.http.requests").tags("method", "POST", "endpoint", "payloads").timer().count());
+                assertEquals(2, registry.get("cosline.payload.bytes").tags("endpoint", "payloads", "direction", "sent").summary().count());
+                assertTrue(registry.get("cosline.payload.bytes").tags("endpoint", "payloads", "direction", "sent").summary().totalAmount() > 0);
+
+                vectorStore.doSimilaritySearch(SearchRequest.query("text-3").withTopK(2));
+                vectorStore.doSimilaritySearch(SearchRequest.query("text-3").withTopK(2));
+
+                assertEquals(1, registry.get("cosline.embedding").tag("source", "query").timer().count());
+                assertEquals(1, registry.get("cosline.http.requests").tags("method", "POST", "endpoint", "search").timer().count());
+                assertEquals(1, registry.get("cosline.response.deserialization").tag("endpoint", "search").timer().count());
+                assertEquals(1, registry.get("cosline.payload.bytes").tags("endpoint", "search", "direction", "sent").summary().count());
+                assertTrue(registry.get("cosline.payload.bytes").tags("endpoint", "search", "direction", "received").summary().totalAmount() > 0);
+                assertEquals(1.0, registry.get("cosline.cache.requests").tags("cache", "search-result", "result", "hit").functionCounter().count());
+                assertEquals(1.0, registry.get("cosline.cache.requests").tags("cache", "search-result", "result", "miss").functionCounter().count());
+                assertEquals(1.0, registry.get("cosline.cache.size").tag("cache", "search-result").gauge().value());
+                assertEquals(0.0, registry.get("cosline.search.fallbacks").counter().count());
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testClientRankingIsRecorded() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, false)) {
+            CoslineVectorStore vectorStore = new CoslineVectorStore(embeddingModel(),
+                    properties(server, VectorEncoding.JSON, 8), registry);
+            try {
+                vectorStore.add(documents(0, 8));
+                vectorStore.doSimilaritySearch(SearchRequest.query("text-3").withTopK(2));
+
+                assertEquals(1.0, registry.get("cosline.search.fallbacks").counter().count());
+                assertEquals(1, registry.get("cosline.http.requests").tags("method", "GET", "endpoint", "payloads").timer().count());
+                assertTrue(registry.get("cosline.payload.bytes").tags("endpoint", "payloads", "direction", "received").summary().totalAmount() > 0);
+                assertEquals(8.0, registry.get("cosline.search.candidates").tag("path", "client").summary().totalAmount());
+                assertEquals(1, registry.get("cosline.search.selection").tag("path", "client").timer().count());
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testLocalSearchIsRecorded() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+            CoslineProperties properties = properties(server, VectorEncoding.JSON, 8);
+            properties.setLocalStoreEnabled(true);
+            CoslineVectorStore vectorStore = new CoslineVectorStore(embeddingModel(), properties, registry);
+            try {
+                vectorStore.add(documents(0, 8));
+                vectorStore.doSimilaritySearchlocal(SearchRequest.query("text-3").withTopK(2));
+
+                assertEquals(1, registry.get("cosline.search.scoring").tag("path", "local").timer().count());
+                assertEquals(1, registry.get("cosline.search.selection").tag("path", "local").timer().count());
+                assertEquals(8.0, registry.get("cosline.search.candidates").tag("path", "local").summary().totalAmount());
+                assertTrue(registry.get("cosline.search.scoring").tag("path", "local").timer().totalTime(TimeUnit.NANOSECONDS) > 0);
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,482 @@
+package org.cosline.client.store;
+
+import org.cosline.client.model.Distance;
+import org.cosline.client.model.ScoredPoint;
+import org.cosline.client.model.VectorEncoding;
+import org.cosline.client.properties.CoslineProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the store against {@link StandInCoslineServer} over real HTTP.
+ */
+class CoslineVectorStoreWireTest {
+
+    private static final int DIMENSION = 256;
+
+    @Test
+    void testBinaryVectorsAreNegotiated() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", true, true)) {
+            CoslineVectorStore vectorStore = vectorStore(server, VectorEncoding.BASE64_F32LE, 4);
+            try {
+                vectorStore.add(documents(0, 4));
+                vectorStore.add(documents(4, 8));
+                List<Document> results = vectorStore.doSimilaritySearch(SearchRequest.query("text-5").withTopK(2));
+
+                assertEquals("doc-5", results.get(0).getId());
+                assertArrayEquals(embed("text-5"), results.get(0).getEmbedding());
+                List<StandInCoslineServer.Exchange> exchanges = server.exchanges();
+                // The first upload only offers the encoding; once the server accepted it the bodies carry base64
+                assertTrue(requestBody(exchanges.get(0)).contains("\"embedding\":["));
+                assertTrue(requestBody(exchanges.get(1)).contains("\"embedding\":\""));
+                assertTrue(requestBody(exchanges.get(2)).contains("\"vector\":\""));
+                assertTrue(exchanges.stream().allMatch(exchange -> "base64-f32le".equals(exchange.offeredEncoding())));
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testServerRanksWithTopKAndThreshold() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+            CoslineVectorStore vectorStore = vectorStore(server, VectorEncoding.JSON, 8);
+            try {
+                vectorStore.add(documents(0, 8));
+                List<Document> topThree = vectorStore.doSimilaritySearch(
+                        SearchRequest.query("text-2").withTopK(3).withSimilarityThreshold(-1.0));
+                List<Document> aboveThreshold = vectorStore.doSimilaritySearch(
+                        SearchRequest.query("text-2").withTopK(3).withSimilarityThreshold(0.5));
+
+                assertEquals(3, topThree.size());
+                assertEquals("doc-2", topThree.get(0).getId());
+                assertEquals(1, aboveThreshold.size());
+                assertEquals("doc-2", aboveThreshold.get(0).getId());
+                assertTrue(((Number) aboveThreshold.get(0).getMetadata().get(ScoredPoint.SCORE_METADATA_KEY)).doubleValue() >= 0.5);
+                StandInCoslineServer.Exchange search = server.exchanges().get(server.exchanges().size() - 1);
+                assertTrue(requestBody(search).contains("\"top_k\":3"));
+                assertTrue(requestBody(search).contains("\"score_threshold\":0.5"));
+                assertEquals(0, payloadReads(server));
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testDistanceThresholdIsAppliedToServerHitsOnTheClient() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+            server.rankByEuclid(true);
+            CoslineProperties properties = properties(server, VectorEncoding.JSON, 8);
+            properties.setDistance(Distance.Euclid);
+            CoslineVectorStore vectorStore = new CoslineVectorStore(embeddingModel(), properties);
+            try {
+                vectorStore.add(documents(0, 8));
+                // Other unit vectors lie about sqrt(2) away, a score of 1 / (1 + sqrt(2)) below the threshold
+                List<Document> results = vectorStore.doSimilaritySearch(
+                        SearchRequest.query("text-2").withTopK(3).withSimilarityThreshold(0.5));
+
+                assertEquals(1, results.size());
+                assertEquals("doc-2", results.get(0).getId());
+                StandInCoslineServer.Exchange search = server.exchanges().get(server.exchanges().size() - 1);
+                assertTrue(requestBody(search).contains("\"score_threshold\":0.0"));
+                assertEquals(0, payloadReads(server));
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testMissingSearchEndpointFallsBackToClientRanking() throws Exception {
+        for (int status : new int[] {404, 405, 501}) {
+            try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+                server.failSearch(status);
+                CoslineVectorStore vectorStore = vectorStore(server, VectorEncoding.JSON, 8);
+                try {
+                    vectorStore.add(documents(0, 8));
+                    List<Document> first = vectorStore.doSimilaritySearch(SearchRequest.query("text-3").withTopK(2));
+                    List<Document> second = vectorStore.doSimilaritySearch(SearchRequest.query("text-6").withTopK(2));
+
+                    assertEquals("doc-3", first.get(0).getId(), "status " + status);
+                    assertEquals(2, first.size(), "status " + status);
+                    assertEquals("doc-6", second.get(0).getId(), "status " + status);
+                    // The endpoint is only tried once; later searches go straight to /payloads
+                    assertEquals(1, searches(server), "status " + status);
+                    assertEquals(2, payloadReads(server), "status " + status);
+                } finally {
+                    vectorStore.destroy();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testServerErrorIsRaisedWithoutFallback() throws Exception {
+        for (int status : new int[] {500, 503}) {
+            try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+                server.failSearch(status);
+                CoslineVectorStore vectorStore = vectorStore(server, VectorEncoding.JSON, 8);
+                try {
+                    vectorStore.add(documents(0, 4));
+
+                    HttpServerErrorException error = assertThrows(HttpServerErrorException.class,
+                            () -> vectorStore.doSimilaritySearch(SearchRequest.query("text-1")));
+
+                    assertEquals(status, error.getStatusCode().value());
+                    assertEquals(0, payloadReads(server));
+                    // A transient failure does not switch the store to client ranking
+                    server.failSearch(0);
+                    assertEquals("doc-1", vectorStore.doSimilaritySearch(SearchRequest.query("text-1")).get(0).getId());
+                    assertEquals(0, payloadReads(server));
+                } finally {
+                    vectorStore.destroy();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testClientRankingDecodesBinaryPayloads() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", true, false)) {
+            CoslineVectorStore vectorStore = vectorStore(server, VectorEncoding.BASE64_F32LE, 4);
+            try {
+                vectorStore.add(documents(0, 8));
+                List<Document> results = vectorStore.doSimilaritySearch(SearchRequest.query("text-2").withTopK(3));
+
+                assertEquals(3, results.size());
+                assertEquals("doc-2", results.get(0).getId());
+                assertEquals("text-2", results.get(0).getContent());
+                assertArrayEquals(embed("text-2"), results.get(0).getEmbedding());
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testServerWithoutBinarySupportKeepsNumberArrays() throws Exception {
+        // This server rejects base64 vectors with 400, so every request must use number arrays
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+            CoslineVectorStore vectorStore = vectorStore(server, VectorEncoding.BASE64_F32LE, 2);
+            try {
+                vectorStore.add(documents(0, 6));
+                List<Document> results = vectorStore.doSimilaritySearch(SearchRequest.query("text-1").withTopK(1));
+
+                assertEquals("doc-1", results.get(0).getId());
+                assertTrue(server.exchanges().stream().noneMatch(exchange -> requestBody(exchange).contains("\"embedding\":\"")));
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testBinaryPayloadsAreSmaller() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", true, false)) {
+            CoslineVectorStore jsonStore = vectorStore(server, VectorEncoding.JSON, 16);
+            CoslineVectorStore binaryStore = vectorStore(server, VectorEncoding.BASE64_F32LE, 16);
+            try {
+                jsonStore.add(documents(0, 16));
+                jsonStore.doSimilaritySearch(SearchRequest.query("text-0"));
+                binaryStore.doSimilaritySearch(SearchRequest.query("text-0"));
+
+                List<StandInCoslineServer.Exchange> reads = server.exchanges().stream()
+                        .filter(exchange -> exchange.method().equals("GET"))
+                        .toList();
+                assertEquals(2, reads.size());
+                assertTrue(reads.get(1).responseBytes() * 2 < reads.get(0).responseBytes(),
+                        reads.get(1).responseBytes() + " bytes of base64 vs " + reads.get(0).responseBytes() + " bytes of JSON");
+            } finally {
+                jsonStore.destroy();
+                binaryStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testPayloadsAreCompressedBothWays() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, false)) {
+            server.compressResponses(true);
+            CoslineProperties properties = properties(server, VectorEncoding.JSON, 8);
+            properties.setRequestCompressionEnabled(true);
+            properties.setCompressionThresholdBytes(4 * 1024);
+            CoslineVectorStore vectorStore = new CoslineVectorStore(embeddingModel(), properties);
+            try {
+                vectorStore.add(documents(0, 8));
+                vectorStore.add(List.of(new Document("small", "small", new HashMap<>())));
+                List<Document> results = vectorStore.doSimilaritySearch(SearchRequest.query("text-6").withTopK(2));
+
+                assertEquals("doc-6", results.get(0).getId());
+                assertArrayEquals(embed("text-6"), results.get(0).getEmbedding());
+                List<StandInCoslineServer.Exchange> exchanges = server.exchanges();
+                StandInCoslineServer.Exchange upload = exchanges.get(0);
+                assertEquals("gzip", upload.requestContentEncoding());
+                assertTrue(upload.requestBytes() < upload.requestBody().length);
+                // One document is below the threshold and goes uncompressed
+                assertNull(exchanges.get(1).requestContentEncoding());
+                assertEquals("gzip", exchanges.get(2).responseContentEncoding());
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testRepeatedSearchesAreCachedUntilTheNextWrite() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+            CoslineVectorStore vectorStore = vectorStore(server, VectorEncoding.JSON, 8);
+            try {
+                vectorStore.add(documents(0, 4));
+                vectorStore.doSimilaritySearch(SearchRequest.query("text-7").withTopK(1));
+                vectorStore.doSimilaritySearch(SearchRequest.query("text-7").withTopK(1));
+                assertEquals(1, searches(server));
+
+                vectorStore.add(documents(4, 8));
+                List<Document> results = vectorStore.doSimilaritySearch(SearchRequest.query("text-7").withTopK(1));
+
+                assertEquals(2, searches(server));
+                assertEquals("doc-7", results.get(0).getId());
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testReingestOnlyEmbedsChangedDocuments(@TempDir Path cacheDirectory) throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, false)) {
+            CoslineProperties properties = properties(server, VectorEncoding.JSON, 4);
+            properties.setEmbeddingCacheDirectory(cacheDirectory.toString());
+            properties.setEmbeddingCacheModel("test-model");
+            List<String> embedded = new ArrayList<>();
+            CoslineVectorStore first = new CoslineVectorStore(embeddingModel(embedded), properties);
+            try {
+                first.add(documents(0, 8));
+            } finally {
+                first.destroy();
+            }
+            assertEquals(8, embedded.size());
+
+            // A new store over the same directory, as on the next nightly run
+            embedded.clear();
+            List<Document> catalog = documents(0, 8);
+            catalog.set(3, new Document("doc-3", "text-3 revised", new HashMap<>()));
+            CoslineVectorStore second = new CoslineVectorStore(embeddingModel(embedded), properties);
+            try {
+                second.add(catalog);
+                List<Document> results = second.doSimilaritySearch(SearchRequest.query("text-5").withTopK(1));
+
+                assertEquals(List.of("text-3 revised"), embedded);
+                assertEquals(7, second.getDocumentEmbeddingCache().hitCount());
+                assertEquals("doc-5", results.get(0).getId());
+            } finally {
+                second.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testAnotherEmbeddingModelDoesNotReuseCachedEmbeddings(@TempDir Path cacheDirectory) throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, false)) {
+            CoslineProperties properties = properties(server, VectorEncoding.JSON, 4);
+            properties.setEmbeddingCacheDirectory(cacheDirectory.toString());
+            properties.setEmbeddingCacheModel("test-model");
+            List<String> embedded = new ArrayList<>();
+            CoslineVectorStore first = new CoslineVectorStore(embeddingModel(embedded), properties);
+            try {
+                first.add(documents(0, 4));
+            } finally {
+                first.destroy();
+            }
+
+            // Reopened as if the model name or its options had been changed in configuration
+            embedded.clear();
+            properties.setEmbeddingCacheModel("test-model-v2");
+            CoslineVectorStore second = new CoslineVectorStore(embeddingModel(embedded), properties);
+            try {
+                second.add(documents(0, 4));
+
+                assertEquals(4, embedded.size());
+                assertEquals(0, second.getDocumentEmbeddingCache().hitCount());
+            } finally {
+                second.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testConfiguredDimensionKeysTheEmbeddingCacheWithoutAskingTheModel(@TempDir Path cacheDirectory) throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, false)) {
+            CoslineProperties properties = properties(server, VectorEncoding.JSON, 4);
+            properties.setEmbeddingCacheDirectory(cacheDirectory.toString());
+            properties.setEmbeddingCacheModel("test-model");
+            properties.setDimension(DIMENSION);
+            List<String> embedded = new ArrayList<>();
+            EmbeddingModel embeddingModel = embeddingModel(embedded);
+            EmbeddingModel withoutDimensions = (EmbeddingModel) Proxy.newProxyInstance(EmbeddingModel.class.getClassLoader(),
+                    new Class<?>[] {EmbeddingModel.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("dimensions")) {
+                            throw new AssertionError("the configured dimension must be used");
+                        }
+                        return method.invoke(embeddingModel, args);
+                    });
+            CoslineVectorStore vectorStore = new CoslineVectorStore(withoutDimensions, properties);
+            try {
+                vectorStore.add(documents(0, 4));
+                vectorStore.add(documents(0, 4));
+
+                assertEquals(4, embedded.size());
+                assertEquals(4, vectorStore.getDocumentEmbeddingCache().hitCount());
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testEmbeddingCacheNeedsAModelIdentity(@TempDir Path cacheDirectory) throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, false)) {
+            CoslineProperties properties = properties(server, VectorEncoding.JSON, 4);
+            properties.setEmbeddingCacheDirectory(cacheDirectory.toString());
+
+            assertThrows(IllegalStateException.class, () -> new CoslineVectorStore(embeddingModel(), properties));
+        }
+    }
+
+    @Test
+    void testDocumentsAreEmbeddedWithTheirMetadata(@TempDir Path cacheDirectory) throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+            CoslineProperties properties = properties(server, VectorEncoding.JSON, 4);
+            properties.setEmbeddingCacheDirectory(cacheDirectory.toString());
+            properties.setEmbeddingCacheModel("test-model");
+            List<String> embedded = new ArrayList<>();
+            CoslineVectorStore vectorStore = new CoslineVectorStore(embeddingModel(embedded), properties);
+            try {
+                vectorStore.add(List.of(new Document("doc-0", "text-0", new HashMap<>(Map.of("brand", "Dell")))));
+                // Same content under other metadata embeds to another text, so it is not a cache hit
+                vectorStore.add(List.of(new Document("doc-0", "text-0", new HashMap<>(Map.of("brand", "Apple")))));
+                vectorStore.add(List.of(new Document("doc-0", "text-0", new HashMap<>(Map.of("brand", "Dell")))));
+
+                assertEquals(List.of("brand: Dell\n\ntext-0", "brand: Apple\n\ntext-0"), embedded);
+                assertEquals(1, vectorStore.getDocumentEmbeddingCache().hitCount());
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    @Test
+    void testFilterValuesAreSentEncodedOnce() throws Exception {
+        try (StandInCoslineServer server = new StandInCoslineServer("vector_store", false, true)) {
+            CoslineVectorStore vectorStore = vectorStore(server, VectorEncoding.JSON, 8);
+            try {
+                vectorStore.add(documents(0, 2));
+                vectorStore.doSimilaritySearch(SearchRequest.query("text-1").withFilterExpression(new Filter.Expression(
+                        Filter.ExpressionType.EQ, new Filter.Key("brand"), new Filter.Value("R&D {100%}"))));
+
+                StandInCoslineServer.Exchange search = server.exchanges().get(server.exchanges().size() - 1);
+                assertEquals("metadata.brand.eq=R%26D%20%7B100%25%7D", search.rawQuery());
+            } finally {
+                vectorStore.destroy();
+            }
+        }
+    }
+
+    static long payloadReads(StandInCoslineServer server) {
+        return server.exchanges().stream()
+                .filter(exchange -> exchange.method().equals("GET") && exchange.path().endsWith("/payloads"))
+                .count();
+    }
+
+    static long searches(StandInCoslineServer server) {
+        return server.exchanges().stream().filter(exchange -> exchange.path().endsWith("/search")).count();
+    }
+
+    private static CoslineVectorStore vectorStore(StandInCoslineServer server, VectorEncoding vectorEncoding, int batchSize) {
+        return new CoslineVectorStore(embeddingModel(), properties(server, vectorEncoding, batchSize));
+    }
+
+    static EmbeddingModel embeddingModel() {
+        return embeddingModel(new ArrayList<>());
+    }
+
+    // Records every document text embedded in batches. Document texts arrive formatted with
+    // their metadata, which is empty for most tests; it is trimmed so they embed like a query
+    private static EmbeddingModel embeddingModel(List<String> embedded) {
+        return (EmbeddingModel) Proxy.newProxyInstance(EmbeddingModel.class.getClassLoader(),
+                new Class<?>[] {EmbeddingModel.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("embed") && args[0] instanceof String text) {
+                        return embed(text);
+                    }
+                    if (method.getName().equals("embed") && args[0] instanceof List<?> texts) {
+                        List<float[]> embeddings = new ArrayList<>();
+                        for (Object text : texts) {
+                            embedded.add(((String) text).strip());
+                            embeddings.add(embed(((String) text).strip()));
+                        }
+                        return embeddings;
+                    }
+                    if (method.getName().equals("dimensions")) {
+                        return DIMENSION;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static CoslineProperties properties(StandInCoslineServer server, VectorEncoding vectorEncoding, int batchSize) {
+        CoslineProperties properties = new CoslineProperties();
+        properties.setHost("localhost");
+        properties.setPort(server.port());
+        properties.setCollectionName("vector_store");
+        properties.setDistance(Distance.Cosine);
+        properties.setVectorEncoding(vectorEncoding);
+        properties.setEmbeddingBatchSize(batchSize);
+        properties.setIngestUploadConcurrency(1);
+        return properties;
+    }
+
+    // A random but repeatable unit vector per text, so a query for a document's text ranks that document first
+    private static float[] embed(String text) {
+        Random random = new Random(text.hashCode());
+        double[] values = new double[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            values[i] = random.nextGaussian();
+            norm += values[i] * values[i];
+        }
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) (values[i] / Math.sqrt(norm));
+        }
+        return vector;
+    }
+
+    static List<Document> documents(int from, int to) {
+        List<Document> documents = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            documents.add(new Document("doc-" + i, "text-" + i, new HashMap<>()));
+        }
+        return documents;
+    }
+
+    private static String requestBody(StandInCoslineServer.Exchange exchange) {
+        return new String(exchange.requestBody(), StandardCharsets.UTF_8);
+    }
+}
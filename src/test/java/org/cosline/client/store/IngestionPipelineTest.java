@@ -0,0 +1,199 @@
+package org.cosline.client.store;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestionPipelineTest {
+
+    @Test
+    void testEveryDocumentIsEmbeddedAndUploaded() throws Exception {
+        RecordingStages stages = new RecordingStages();
+        try (IngestionPipeline pipeline = new IngestionPipeline(stages, 3, 2, 1, 2, 2)) {
+            List<Document> documents = documents("doc", 10);
+
+            IngestionResult result = pipeline.submit(documents).get(5, TimeUnit.SECONDS);
+
+            assertTrue(result.isSuccess());
+            assertEquals(10, result.succeeded().size());
+            assertEquals(10, stages.uploadedDocuments.get());
+            for (Document document : documents) {
+                assertEquals(2, document.getEmbedding().length);
+            }
+        }
+    }
+
+    @Test
+    void testFailuresAreReportedPerDocument() throws Exception {
+        RecordingStages stages = new RecordingStages() {
+            @Override
+            public void embed(List<Document> batch) {
+                if (batch.stream().anyMatch(document -> document.getId().equals("doc-1"))) {
+                    throw new IllegalStateException("embedding failed");
+                }
+                super.embed(batch);
+            }
+
+            @Override
+            public void upload(byte[] body) {
+                if (new String(body, StandardCharsets.UTF_8).contains("doc-4")) {
+                    throw new IllegalStateException("upload failed");
+                }
+                super.upload(body);
+            }
+        };
+        try (IngestionPipeline pipeline = new IngestionPipeline(stages, 2, 1, 1, 1, 2)) {
+            IngestionResult result = pipeline.submit(documents("doc", 6)).get(5, TimeUnit.SECONDS);
+
+            assertFalse(result.isSuccess());
+            assertEquals("embedding failed", result.failures().get("doc-0").getMessage());
+            assertEquals("embedding failed", result.failures().get("doc-1").getMessage());
+            assertEquals("upload failed", result.failures().get("doc-4").getMessage());
+            // doc-5 shares the batch of doc-4 but was packed into its own array
+            assertEquals(3, result.failures().size());
+            assertTrue(result.succeeded().containsAll(List.of("doc-2", "doc-3", "doc-5")));
+        }
+    }
+
+    @Test
+    void testErrorsFailTheirDocumentsAndKeepTheWorkers() throws Exception {
+        RecordingStages stages = new RecordingStages() {
+            @Override
+            public void embed(List<Document> batch) {
+                if (batch.get(0).getId().startsWith("embed-error")) {
+                    throw new NoClassDefFoundError("embedding client");
+                }
+                super.embed(batch);
+            }
+
+            @Override
+            public List<BulkUpload.JsonArray> encode(List<Document> batch) {
+                if (batch.get(0).getId().startsWith("encode-error")) {
+                    throw new StackOverflowError();
+                }
+                return super.encode(batch);
+            }
+
+            @Override
+            public void upload(byte[] body) {
+                if (new String(body, StandardCharsets.UTF_8).contains("upload-error")) {
+                    throw new AssertionError("upload failed");
+                }
+                super.upload(body);
+            }
+        };
+        // One worker per stage, so a worker killed by an error would stall the last submission
+        try (IngestionPipeline pipeline = new IngestionPipeline(stages, 2, 1, 1, 1, 2)) {
+            IngestionResult embedFailure = pipeline.submit(documents("embed-error", 2)).get(5, TimeUnit.SECONDS);
+            IngestionResult encodeFailure = pipeline.submit(documents("encode-error", 2)).get(5, TimeUnit.SECONDS);
+            IngestionResult uploadFailure = pipeline.submit(documents("upload-error", 2)).get(5, TimeUnit.SECONDS);
+            IngestionResult result = pipeline.submit(documents("doc", 4)).get(5, TimeUnit.SECONDS);
+
+            assertInstanceOf(NoClassDefFoundError.class, embedFailure.failures().get("embed-error-1"));
+            assertInstanceOf(StackOverflowError.class, encodeFailure.failures().get("encode-error-1"));
+            assertInstanceOf(AssertionError.class, uploadFailure.failures().get("upload-error-1"));
+            assertEquals(2, uploadFailure.failures().size());
+            assertTrue(result.isSuccess());
+        }
+    }
+
+    @Test
+    void testSubmitBlocksWhileUploadsAreStalled() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingStages stages = new RecordingStages() {
+            @Override
+            public void upload(byte[] body) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.upload(body);
+            }
+        };
+        try (IngestionPipeline pipeline = new IngestionPipeline(stages, 1, 1, 1, 1, 1)) {
+            CompletableFuture<CompletableFuture<IngestionResult>> submitted =
+                    CompletableFuture.supplyAsync(() -> pipeline.submit(documents("doc", 20)));
+
+            Thread.sleep(300);
+            assertFalse(submitted.isDone());
+
+            release.countDown();
+            IngestionResult result = submitted.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+            assertEquals(20, result.succeeded().size());
+        }
+    }
+
+    @Test
+    void testCloseFailsDocumentsInFlight() throws Exception {
+        CountDownLatch uploading = new CountDownLatch(1);
+        RecordingStages stages = new RecordingStages() {
+            @Override
+            public void upload(byte[] body) {
+                uploading.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        IngestionPipeline pipeline = new IngestionPipeline(stages, 1, 1, 1, 1, 1);
+        CompletableFuture<IngestionResult> future = pipeline.submit(documents("doc", 1));
+        assertTrue(uploading.await(5, TimeUnit.SECONDS));
+
+        pipeline.close();
+
+        assertTrue(future.isCompletedExceptionally());
+        assertThrows(IllegalStateException.class, () -> pipeline.submit(documents("doc", 1)));
+    }
+
+    private static List<Document> documents(String prefix, int count) {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            documents.add(new Document(prefix + "-" + i, "content " + i, new HashMap<>()));
+        }
+        return documents;
+    }
+
+    private static class RecordingStages implements IngestionPipeline.Stages {
+
+        final AtomicInteger uploadedDocuments = new AtomicInteger();
+
+        @Override
+        public void embed(List<Document> batch) {
+            for (Document document : batch) {
+                document.setEmbedding(new float[] {1, 2});
+            }
+        }
+
+        @Override
+        public void index(List<Document> batch) {
+        }
+
+        // One document per array, so each upload carries exactly one id
+        @Override
+        public List<BulkUpload.JsonArray> encode(List<Document> batch) {
+            List<byte[]> encoded = new ArrayList<>();
+            for (Document document : batch) {
+                encoded.add(("\"" + document.getId() + "\"").getBytes(StandardCharsets.UTF_8));
+            }
+            return BulkUpload.toJsonArrays(encoded, 1);
+        }
+
+        @Override
+        public void upload(byte[] body) {
+            uploadedDocuments.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.cosline.client.store;
+
+import org.cosline.client.distance.DistanceFunctions;
+import org.cosline.client.index.QuantizationParameters;
+import org.cosline.client.model.Distance;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalVectorIndexTest {
+
+    private final Random random = new Random(11);
+
+    @Test
+    void testCosineSearchMatchesBruteForce() {
+        LocalVectorIndex index = new LocalVectorIndex(DistanceFunctions.forDistance(Distance.Cosine));
+        List<Document> documents = IntStream.range(0, 500)
+                .mapToObj(i -> document("doc-" + i, randomVector(64)))
+                .toList();
+        documents.forEach(index::add);
+        float[] query = randomVector(64);
+
+        TopKCollector hits = index.search(query, 10, 0.0);
+
+        List<Document> expected = documents.stream()
+                .filter(d -> CoslineVectorStore.cosineSimilarity(query, d.getEmbedding()) >= 0.0)
+                .sorted(Comparator.comparingDouble((Document d) -> CoslineVectorStore.cosineSimilarity(query, d.getEmbedding())).reversed())
+                .limit(10)
+                .toList();
+        assertEquals(expected.size(), hits.size());
+        for (int rank = 0; rank < hits.size(); rank++) {
+            Document expectedDocument = expected.get(rank);
+            assertEquals(expectedDocument.getId(), index.document(hits.doc(rank)).getId());
+            assertEquals(CoslineVectorStore.cosineSimilarity(query, expectedDocument.getEmbedding()), hits.score(rank), 1e-5);
+        }
+    }
+
+    @Test
+    void testReAddingAnIdReplacesThePreviousVersion() {
+        LocalVectorIndex index = new LocalVectorIndex(DistanceFunctions.forDistance(Distance.Cosine));
+        index.add(document("a", new float[]{1, 0}));
+        index.add(document("b", new float[]{0, 1}));
+        index.add(document("a", new float[]{-1, 0}));
+
+        assertEquals(2, index.size());
+        TopKCollector hits = index.search(new float[]{1, 0}, 5, -1.0);
+        assertEquals(2, hits.size());
+        assertEquals("b", index.document(hits.doc(0)).getId());
+        assertEquals("a", index.document(hits.doc(1)).getId());
+        assertEquals(-1.0f, index.get("a").getEmbedding()[0], 0.0f);
+    }
+
+    @Test
+    void testOrdinalRetiredAfterSearchHasNoDocument() {
+        LocalVectorIndex index = new LocalVectorIndex(DistanceFunctions.forDistance(Distance.Cosine));
+        index.add(document("a", new float[]{1, 0}));
+        index.add(document("b", new float[]{0, 1}));
+        TopKCollector hits = index.search(new float[]{1, 0}, 1, 0.0);
+
+        index.add(document("a", new float[]{1, 1}));
+
+        assertNull(index.document(hits.doc(0)));
+    }
+
+    @Test
+    void testEuclidSearchPrefersNearestVectors() {
+        LocalVectorIndex index = new LocalVectorIndex(DistanceFunctions.forDistance(Distance.Euclid));
+        index.add(document("far", new float[]{10, 10}));
+        index.add(document("near", new float[]{1, 1}));
+
+        TopKCollector hits = index.search(new float[]{0, 0}, 1, 0.0);
+
+        assertEquals("near", index.document(hits.doc(0)).getId());
+    }
+
+    @Test
+    void testFilterIsAppliedBeforeRanking() {
+        LocalVectorIndex index = new LocalVectorIndex(DistanceFunctions.forDistance(Distance.Cosine));
+        for (int i = 0; i < 200; i++) {
+            Document document = document("doc-" + i, randomVector(16));
+            document.getMetadata().put("parity", i % 2 == 0 ? "even" : "odd");
+            index.add(document);
+        }
+
+        TopKCollector hits = index.search(randomVector(16), 20, -1.0, LocalSearchOptions.defaults(),
+                metadata -> "odd".equals(metadata.get("parity")));
+
+        assertEquals(20, hits.size());
+        for (int rank = 0; rank < hits.size(); rank++) {
+            assertEquals("odd", index.document(hits.doc(rank)).getMetadata().get("parity"));
+        }
+    }
+
+    @Test
+    void testZeroTopKFindsNothing() {
+        LocalVectorIndex index = new LocalVectorIndex(DistanceFunctions.forDistance(Distance.Cosine));
+        for (int i = 0; i < 50; i++) {
+            index.add(document("doc-" + i, randomVector(8)));
+        }
+
+        assertEquals(0, index.search(randomVector(8), 0, -1.0).size());
+    }
+
+    @Test
+    void testRejectsMismatchedDimensions() {
+        LocalVectorIndex index = new LocalVectorIndex(DistanceFunctions.forDistance(Distance.Cosine));
+        index.add(document("a", new float[]{1, 0}));
+
+        assertThrows(IllegalArgumentException.class, () -> index.add(document("b", new float[]{1, 0, 0})));
+        assertThrows(IllegalArgumentException.class, () -> index.search(new float[]{1, 0, 0}, 1, 0.0));
+    }
+
+    @Test
+    void testConcurrentAddsAcrossTheTrainingSampleSizeTrainOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            // The race needs one writer to publish while another is between its check and the training flag
+            for (int round = 0; round < 500; round++) {
+                LocalVectorIndex index = new LocalVectorIndex(DistanceFunctions.forDistance(Distance.Cosine), null,
+                        new QuantizationParameters(2, 8, 1, false, 4));
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> writers = new ArrayList<>();
+                for (int writer = 0; writer < 8; writer++) {
+                    int first = writer * 16;
+                    List<Document> documents = IntStream.range(first, first + 16)
+                            .mapToObj(i -> document("doc-" + i, randomVector(4)))
+                            .toList();
+                    writers.add(executor.submit(() -> {
+                        start.await();
+                        documents.forEach(index::add);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> writer : writers) {
+                    writer.get();
+                }
+
+                assertTrue(index.isQuantized());
+                assertEquals(128, index.size());
+                assertEquals(10, index.search(randomVector(4), 10, -1.0).size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testWriterThatArrivesAfterPublicationDoesNotTrainAgain() {
+        LocalVectorIndex index = new LocalVectorIndex(DistanceFunctions.forDistance(Distance.Cosine), null,
+                new QuantizationParameters(2, 8, 1, false, 4));
+        for (int i = 0; i < 8; i++) {
+            index.add(document("doc-" + i, randomVector(4)));
+        }
+        assertTrue(index.isQuantized());
+
+        // As a writer that saw no quantizer before another one published it and dropped the full vectors
+        index.trainQuantizer();
+
+        assertEquals(5, index.search(randomVector(4), 5, -1.0).size());
+    }
+
+    private Document document(String id, float[] embedding) {
+        Document document = new Document(id, "content " + id, new HashMap<>());
+        document.setEmbedding(embedding);
+        return document;
+    }
+
+    private float[] randomVector(int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = random.nextFloat() * 2 - 1;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,94 @@
+package org.cosline.client.store;
+
+import org.cosline.client.distance.DistanceFunctions;
+import org.cosline.client.model.Distance;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelScanTest {
+
+    private final Random random = new Random(13);
+
+    @Test
+    void testParallelScanMatchesSequentialScan() {
+        float[] scores = new float[100_000];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextFloat();
+        }
+        try (ParallelScan scan = new ParallelScan(4, 1_000, 512)) {
+            TopKCollector parallel = scan.scan(scores.length, 50, 0.2, i -> i % 3 != 0, i -> scores[i]);
+
+            TopKCollector sequential = new TopKCollector(50, 0.2);
+            for (int i = 0; i < scores.length; i++) {
+                if (i % 3 != 0) {
+                    sequential.collect(i, scores[i]);
+                }
+            }
+            sequential.sort();
+
+            assertEquals(sequential.size(), parallel.size());
+            for (int rank = 0; rank < sequential.size(); rank++) {
+                assertEquals(sequential.doc(rank), parallel.doc(rank));
+                assertEquals(sequential.score(rank), parallel.score(rank), 0.0f);
+            }
+        }
+    }
+
+    @Test
+    void testKLargerThanChunkKeepsAllHits() {
+        try (ParallelScan scan = new ParallelScan(4, 10, 16)) {
+            TopKCollector hits = scan.scan(1_000, 500, -1.0, i -> true, i -> i);
+
+            assertEquals(500, hits.size());
+            assertEquals(999, hits.doc(0));
+            assertEquals(500, hits.doc(499));
+        }
+    }
+
+    @Test
+    void testIndexSearchUsesParallelScan() {
+        LocalVectorIndex sequential = new LocalVectorIndex(DistanceFunctions.forDistance(Distance.Cosine));
+        LocalVectorIndex parallel = new LocalVectorIndex(DistanceFunctions.forDistance(Distance.Cosine));
+        try (ParallelScan scan = new ParallelScan(4, 100, 128)) {
+            parallel.setParallelScan(scan);
+            for (int i = 0; i < 5_000; i++) {
+                Document document = new Document("doc-" + i, "content", new HashMap<>());
+                document.setEmbedding(randomVector());
+                sequential.add(document);
+                parallel.add(document);
+            }
+            float[] query = randomVector();
+
+            TopKCollector expected = sequential.search(query, 10, -1.0);
+            TopKCollector actual = parallel.search(query, 10, -1.0);
+            for (int rank = 0; rank < expected.size(); rank++) {
+                assertEquals(expected.doc(rank), actual.doc(rank));
+            }
+        }
+    }
+
+    @Test
+    void testScorerFailureIsPropagated() {
+        try (ParallelScan scan = new ParallelScan(4, 10, 16)) {
+            assertThrows(IllegalArgumentException.class, () -> scan.scan(1_000, 5, -1.0, i -> true, i -> {
+                if (i == 777) {
+                    throw new IllegalArgumentException("Vectors lengths must be equal");
+                }
+                return i;
+            }));
+        }
+    }
+
+    private float[] randomVector() {
+        float[] vector = new float[32];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,74 @@
+package org.cosline.client.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.cosline.client.distance.DistanceFunctions;
+import org.cosline.client.model.Distance;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadStreamReaderTest {
+
+    private final PayloadStreamReader reader = new PayloadStreamReader(new ObjectMapper());
+
+    @Test
+    void testKeepsTopKWhileParsing() throws IOException {
+        String json = """
+                [
+                  {"id": "weak", "content": "w", "metadata": {"n": 1}, "embedding": [1.0, 1.0]},
+                  {"id": "best", "content": "b", "embedding": [1.0, 0.0], "metadata": {"tags": ["a"], "nested": {"x": 2}}},
+                  {"id": "opposite", "content": "o", "metadata": {}, "embedding": [-1.0, 0.0], "score": 0.5},
+                  {"embedding": [1.0, 0.1], "content": "c", "id": "close"}
+                ]
+                """;
+        StreamingTopK topK = topK(2);
+
+        long bytes = reader.read(body(json), topK, 2);
+
+        assertEquals(json.getBytes(StandardCharsets.UTF_8).length - 1, bytes);
+        assertEquals(4, topK.offered());
+        List<Document> results = topK.results();
+        assertEquals(List.of("best", "close"), results.stream().map(Document::getId).toList());
+        assertEquals("b", results.get(0).getContent());
+        assertEquals(List.of("a"), results.get(0).getMetadata().get("tags"));
+        assertArrayEquals(new float[] {1.0f, 0.0f}, results.get(0).getEmbedding());
+        assertArrayEquals(new float[] {1.0f, 0.1f}, results.get(1).getEmbedding());
+    }
+
+    @Test
+    void testEmptyAndNullBodies() throws IOException {
+        StreamingTopK topK = topK(3);
+        reader.read(body("[]"), topK, 2);
+        reader.read(body("null"), topK, 2);
+        reader.read(body(""), topK, 2);
+        assertEquals(0, topK.offered());
+        assertTrue(topK.results().isEmpty());
+    }
+
+    @Test
+    void testRejectsMismatchedDimension() {
+        assertThrows(IllegalArgumentException.class,
+                () -> reader.read(body("[{\"id\": \"long\", \"embedding\": [1, 0, 0]}]"), topK(2), 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> reader.read(body("[{\"id\": \"missing\", \"content\": \"m\"}]"), topK(2), 2));
+    }
+
+    @Test
+    void testRejectsNonArrayBody() {
+        assertThrows(IOException.class, () -> reader.read(body("{\"id\": \"a\"}"), topK(2), 2));
+    }
+
+    private static StreamingTopK topK(int k) {
+        return new StreamingTopK(new float[] {1, 0}, k, 0.0, DistanceFunctions.forDistance(Distance.Cosine));
+    }
+
+    private static ByteArrayInputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
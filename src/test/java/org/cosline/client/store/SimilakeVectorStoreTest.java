@@ -100,7 +100,7 @@ class CoslineVectorStoreTest {
         // Mock embedding generation
         float[] embedding = new float[1536];
         Arrays.fill(embedding, 0.1f);
-        doReturn(embedding).when(embeddingModel).embed(any(Document.class));
+        doReturn(List.of(embedding)).when(embeddingModel).embed(anyList());
         vectorStore.add(documents);
 
         ResponseEntity<List<Document>> vectorStorePayloads = getVectorStorePayloads(coslineProperties.getHost(), coslineProperties.getPort(), coslineProperties.getCollectionName());
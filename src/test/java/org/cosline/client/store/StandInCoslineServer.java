@@ -0,0 +1,317 @@
+package org.cosline.client.store;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.cosline.client.model.VectorEncoding;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An in-memory stand-in for a Cosline server, for wire-level tests of the client. It
+ * serves {@code /payloads} and, optionally, {@code /search} for one collection, ranks by
+ * cosine similarity and ignores filters. After {@link #rankByEuclid} it ranks by
+ * Euclidean distance instead, nearest first, and reports the distance as the score. In
+ * both cases {@code score_threshold} is compared with the raw score.
+ * <p>
+ * With binary vector support it echoes the {@link VectorEncoding#HEADER} offer, returns
+ * base64 vectors to clients that offered them and accepts either encoding in request
+ * bodies. Without it, it behaves like an older server that only knows number arrays and
+ * rejects anything else with 400.
+ * <p>
+ * Gzip request bodies are always accepted. Responses are gzipped for clients that accept
+ * it once {@link #compressResponses} is switched on.
+ * <p>
+ * {@link #failSearch} makes {@code /search} answer with an error status instead.
+ * {@link #holdNextResponse} stalls a response part way through its array. Requests are
+ * served concurrently, so other requests still get through while one is held.
+ */
+final class StandInCoslineServer implements AutoCloseable {
+
+    /**
+     * One served request. The query is recorded as sent, still encoded; the request body is
+     * recorded decompressed; the byte counts are what went over the wire.
+     */
+    record Exchange(String method, String path, String rawQuery, String offeredEncoding, String requestContentEncoding,
+                    byte[] requestBody, int requestBytes, String responseContentEncoding, int responseBytes) {
+    }
+
+    private record Point(String id, String content, JsonNode metadata, float[] vector) {
+    }
+
+    private record Hold(int items, CountDownLatch release) {
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String collectionPath;
+    private final boolean binaryVectors;
+    private final boolean searchEndpoint;
+    private final Map<String, Point> points = new LinkedHashMap<>();
+    private final List<Exchange> exchanges = new CopyOnWriteArrayList<>();
+    private volatile boolean compressResponses;
+    private volatile int searchFailureStatus;
+    private volatile boolean rankByEuclid;
+    private final AtomicReference<Hold> nextHold = new AtomicReference<>();
+    private final List<CountDownLatch> holds = new CopyOnWriteArrayList<>();
+
+    StandInCoslineServer(String collection, boolean binaryVectors, boolean searchEndpoint) throws IOException {
+        this.collectionPath = "/api/v1/collections/" + collection;
+        this.binaryVectors = binaryVectors;
+        this.searchEndpoint = searchEndpoint;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext("/", this::handle);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stand-in-cosline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    List<Exchange> exchanges() {
+        return exchanges;
+    }
+
+    void compressResponses(boolean compressResponses) {
+        this.compressResponses = compressResponses;
+    }
+
+    void rankByEuclid(boolean rankByEuclid) {
+        this.rankByEuclid = rankByEuclid;
+    }
+
+    void failSearch(int status) {
+        this.searchFailureStatus = status;
+    }
+
+    /**
+     * Makes the next payload listing or search answer with a chunked array that stops after
+     * {@code items} elements until the returned latch is counted down or the server is
+     * closed, as a large or slow response would.
+     */
+    CountDownLatch holdNextResponse(int items) {
+        Hold hold = new Hold(items, new CountDownLatch(1));
+        holds.add(hold.release());
+        nextHold.set(hold);
+        return hold.release();
+    }
+
+    @Override
+    public void close() {
+        holds.forEach(CountDownLatch::countDown);
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            String offered = exchange.getRequestHeaders().getFirst(VectorEncoding.HEADER);
+            String requestContentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            byte[] wireRequestBody = exchange.getRequestBody().readAllBytes();
+            byte[] requestBody = "gzip".equals(requestContentEncoding)
+                    ? new GZIPInputStream(new ByteArrayInputStream(wireRequestBody)).readAllBytes()
+                    : wireRequestBody;
+            boolean binaryResponse = binaryVectors && VectorEncoding.fromToken(offered) == VectorEncoding.BASE64_F32LE;
+            if (binaryResponse) {
+                exchange.getResponseHeaders().set(VectorEncoding.HEADER, VectorEncoding.BASE64_F32LE.getToken());
+            }
+
+            int status = 200;
+            byte[] responseBody;
+            ArrayNode array = null;
+            try {
+                if (path.equals(collectionPath + "/payloads") && method.equals("POST")) {
+                    store(requestBody);
+                    responseBody = "{\"status\":\"ok\"}".getBytes();
+                } else if (path.equals(collectionPath + "/payloads") && method.equals("GET")) {
+                    array = allPoints(binaryResponse);
+                    responseBody = objectMapper.writeValueAsBytes(array);
+                } else if (path.equals(collectionPath + "/search") && method.equals("POST") && searchFailureStatus != 0) {
+                    status = searchFailureStatus;
+                    responseBody = "{\"error\":\"search failed\"}".getBytes();
+                } else if (path.equals(collectionPath + "/search") && method.equals("POST") && searchEndpoint) {
+                    array = search(requestBody, binaryResponse);
+                    responseBody = objectMapper.writeValueAsBytes(array);
+                } else {
+                    status = 404;
+                    responseBody = "{\"error\":\"not found\"}".getBytes();
+                }
+            } catch (IllegalArgumentException e) {
+                status = 400;
+                responseBody = ("{\"error\":\"" + e.getMessage() + "\"}").getBytes();
+            }
+
+            Hold hold = array != null ? nextHold.getAndSet(null) : null;
+            if (hold != null) {
+                int responseBytes = respondHeld(exchange, array, hold);
+                exchanges.add(new Exchange(method, path, exchange.getRequestURI().getRawQuery(), offered, requestContentEncoding, requestBody,
+                        wireRequestBody.length, null, responseBytes));
+                return;
+            }
+
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            String responseContentEncoding = null;
+            if (compressResponses && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(responseBody);
+                }
+                responseBody = compressed.toByteArray();
+                responseContentEncoding = "gzip";
+                exchange.getResponseHeaders().set("Content-Encoding", responseContentEncoding);
+            }
+            // Recorded before responding, so a client that has read the response also sees the exchange
+            exchanges.add(new Exchange(method, path, exchange.getRequestURI().getRawQuery(), offered, requestContentEncoding, requestBody, wireRequestBody.length,
+                    responseContentEncoding, responseBody.length));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, responseBody.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(responseBody);
+            }
+        }
+    }
+
+    // Flushes the first elements, waits for the release, then sends the rest; returns the bytes sent
+    private int respondHeld(HttpExchange exchange, ArrayNode array, Hold hold) throws IOException {
+        List<byte[]> chunks = new ArrayList<>();
+        for (int i = 0; i < array.size(); i++) {
+            chunks.add(((i == 0 ? "[" : ",") + objectMapper.writeValueAsString(array.get(i))).getBytes());
+        }
+        chunks.add(array.isEmpty() ? "[]".getBytes() : "]".getBytes());
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        int responseBytes = 0;
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < chunks.size(); i++) {
+                if (i == hold.items()) {
+                    out.flush();
+                    try {
+                        hold.release().await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while holding the response", e);
+                    }
+                }
+                out.write(chunks.get(i));
+                responseBytes += chunks.get(i).length;
+            }
+        }
+        return responseBytes;
+    }
+
+    private synchronized void store(byte[] body) throws IOException {
+        for (JsonNode node : objectMapper.readTree(body)) {
+            Point point = new Point(node.path("id").asText(), node.path("content").asText(),
+                    node.path("metadata"), vector(node.get("embedding")));
+            points.put(point.id(), point);
+        }
+    }
+
+    private synchronized ArrayNode allPoints(boolean binary) {
+        ArrayNode array = objectMapper.createArrayNode();
+        for (Point point : points.values()) {
+            array.add(toJson(point, binary));
+        }
+        return array;
+    }
+
+    private synchronized ArrayNode search(byte[] body, boolean binary) throws IOException {
+        JsonNode query = objectMapper.readTree(body);
+        float[] vector = vector(query.get("vector"));
+        double threshold = query.path("score_threshold").asDouble();
+        List<Map.Entry<Point, Double>> hits = new ArrayList<>();
+        for (Point point : points.values()) {
+            double score = rankByEuclid ? euclid(vector, point.vector()) : cosine(vector, point.vector());
+            if (score >= threshold) {
+                hits.add(Map.entry(point, score));
+            }
+        }
+        hits.sort(rankByEuclid ? Map.Entry.comparingByValue() : Map.Entry.<Point, Double>comparingByValue(Comparator.reverseOrder()));
+        ArrayNode array = objectMapper.createArrayNode();
+        for (Map.Entry<Point, Double> hit : hits.subList(0, Math.min(query.path("top_k").asInt(), hits.size()))) {
+            array.add(toJson(hit.getKey(), binary).put("score", hit.getValue()));
+        }
+        return array;
+    }
+
+    private ObjectNode toJson(Point point, boolean binary) {
+        ObjectNode node = objectMapper.createObjectNode()
+                .put("id", point.id())
+                .put("content", point.content());
+        node.set("metadata", point.metadata());
+        if (binary) {
+            node.put("embedding", VectorEncoding.encode(point.vector()));
+        } else {
+            ArrayNode embedding = node.putArray("embedding");
+            for (float value : point.vector()) {
+                embedding.add(value);
+            }
+        }
+        return node;
+    }
+
+    private float[] vector(JsonNode node) {
+        if (node == null || node.isNull()) {
+            throw new IllegalArgumentException("missing vector");
+        }
+        if (node.isTextual()) {
+            if (!binaryVectors) {
+                throw new IllegalArgumentException("vectors must be number arrays");
+            }
+            return VectorEncoding.decode(node.asText());
+        }
+        float[] vector = new float[node.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = node.get(i).floatValue();
+        }
+        return vector;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0, normA = 0, normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+
+    private static double euclid(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            double diff = a[i] - b[i];
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum);
+    }
+}
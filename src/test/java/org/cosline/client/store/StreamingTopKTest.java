@@ -0,0 +1,51 @@
+package org.cosline.client.store;
+
+import org.cosline.client.distance.DistanceFunctions;
+import org.cosline.client.model.Distance;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingTopKTest {
+
+    @Test
+    void testKeepsBestDocumentsAsTheyArrive() {
+        StreamingTopK topK = new StreamingTopK(new float[] {1, 0}, 2, 0.0, DistanceFunctions.forDistance(Distance.Cosine));
+
+        topK.offer(document("weak", 1, 1));
+        topK.offer(document("opposite", -1, 0));
+        topK.offer(document("best", 1, 0));
+        topK.offer(document("close", 1, 0.2f));
+
+        assertEquals(4, topK.offered());
+        List<Document> results = topK.results();
+        assertEquals(List.of("best", "close"), results.stream().map(Document::getId).toList());
+    }
+
+    @Test
+    void testZeroKReturnsNoDocuments() {
+        StreamingTopK topK = new StreamingTopK(new float[] {1, 0}, 0, 0.0, DistanceFunctions.forDistance(Distance.Cosine));
+
+        topK.offer(document("best", 1, 0));
+        topK.offer(document("close", 1, 0.2f));
+
+        assertEquals(2, topK.offered());
+        assertTrue(topK.results().isEmpty());
+    }
+
+    @Test
+    void testRejectsMismatchedDimension() {
+        StreamingTopK topK = new StreamingTopK(new float[] {1, 0}, 2, 0.0, DistanceFunctions.forDistance(Distance.Cosine));
+        assertThrows(IllegalArgumentException.class, () -> topK.offer(document("short", 1)));
+    }
+
+    private static Document document(String id, float... embedding) {
+        Document document = new Document(id, "content " + id, new HashMap<>());
+        document.setEmbedding(embedding);
+        return document;
+    }
+}
@@ -0,0 +1,117 @@
+package org.cosline.client.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKCollectorTest {
+
+    @Test
+    void testKeepsBestScoresInDescendingOrder() {
+        TopKCollector collector = new TopKCollector(3, 0.0);
+        float[] scores = {0.1f, 0.9f, 0.5f, 0.7f, 0.3f, 0.8f};
+        for (int i = 0; i < scores.length; i++) {
+            collector.collect(i, scores[i]);
+        }
+        collector.sort();
+
+        assertEquals(3, collector.size());
+        assertEquals(1, collector.doc(0));
+        assertEquals(5, collector.doc(1));
+        assertEquals(3, collector.doc(2));
+        assertEquals(0.9f, collector.score(0), 0.0f);
+    }
+
+    @Test
+    void testAppliesSimilarityThreshold() {
+        TopKCollector collector = new TopKCollector(5, 0.6);
+        collector.collect(0, 0.59f);
+        collector.collect(1, 0.6f);
+        collector.collect(2, 0.95f);
+        collector.sort();
+
+        assertEquals(2, collector.size());
+        assertEquals(2, collector.doc(0));
+        assertEquals(1, collector.doc(1));
+    }
+
+    @Test
+    void testMatchesFullSortOnRandomScores() {
+        Random random = new Random(42);
+        float[] scores = new float[10_000];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextFloat() * 2 - 1;
+        }
+        int k = 20;
+        TopKCollector collector = new TopKCollector(k, -1.0);
+        for (int i = 0; i < scores.length; i++) {
+            collector.collect(i, scores[i]);
+        }
+        collector.sort();
+
+        int[] expected = IntStream.range(0, scores.length).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> scores[i]).reversed())
+                .limit(k)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] actual = IntStream.range(0, collector.size()).map(collector::doc).toArray();
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void testPeekDocReturnsWeakestRetainedCandidate() {
+        TopKCollector collector = new TopKCollector(2, 0.0);
+        collector.collect(7, 0.4f);
+        collector.collect(8, 0.2f);
+
+        assertTrue(collector.isFull());
+        assertEquals(8, collector.peekDoc());
+        assertFalse(collector.competitive(0.1f));
+        assertTrue(collector.competitive(0.3f));
+    }
+
+    @Test
+    void testRankedAccessRequiresSort() {
+        TopKCollector collector = new TopKCollector(2, 0.0);
+        collector.collect(0, 0.5f);
+
+        assertThrows(IllegalStateException.class, () -> collector.doc(0));
+        collector.sort();
+        assertThrows(IllegalStateException.class, () -> collector.collect(1, 0.9f));
+        assertEquals(0, collector.doc(0));
+    }
+
+    @Test
+    void testZeroKRetainsNothing() {
+        TopKCollector collector = new TopKCollector(0, 0.0);
+
+        assertFalse(collector.competitive(1.0f));
+        assertFalse(collector.collect(0, 1.0f));
+        assertFalse(collector.collect(1, 0.5f));
+        assertTrue(collector.isFull());
+        assertEquals(2, collector.offered());
+        assertEquals(0, collector.sort().size());
+    }
+
+    @Test
+    void testOfferedCountsMergedCandidates() {
+        TopKCollector left = new TopKCollector(2, 0.0);
+        left.collect(0, 0.5f);
+        left.collect(1, -0.5f);
+        left.collect(2, 0.7f);
+        TopKCollector right = new TopKCollector(2, 0.0);
+        right.collect(3, 0.9f);
+
+        TopKCollector merged = new TopKCollector(2, 0.0).merge(left).merge(right);
+
+        assertEquals(3, left.offered());
+        assertEquals(4, merged.offered());
+        merged.sort();
+        assertEquals(3, merged.doc(0));
+        assertEquals(2, merged.doc(1));
+    }
+}
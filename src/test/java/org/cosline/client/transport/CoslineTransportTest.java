@@ -0,0 +1,45 @@
+package org.cosline.client.transport;
+
+import org.cosline.client.properties.CoslineProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoslineTransportTest {
+
+    @Test
+    void testUrlsAreBuiltFromProperties() {
+        try (CoslineTransport transport = new CoslineTransport(properties())) {
+            assertEquals("http://localhost:6767/api/v1/collections/vector_store", transport.collectionUrl());
+            assertEquals("http://localhost:6767/api/v1/collections/vector_store/payloads", transport.payloadsUrl());
+            assertEquals("http://localhost:6767/api/v1/collections/vector_store/search", transport.searchUrl());
+            assertSame(transport.restTemplate(), transport.restTemplate());
+            assertEquals(2, transport.restTemplate().getInterceptors().size());
+            assertTrue(transport.restTemplate().getInterceptors().get(0) instanceof PayloadCompression);
+        }
+    }
+
+    @Test
+    void testIdleTimeoutIsNotSetJvmWide() {
+        CoslineProperties properties = properties();
+        properties.setConnectionIdleTimeoutSeconds(7);
+        try (CoslineTransport transport = new CoslineTransport(properties)) {
+            assertNull(System.getProperty("jdk.httpclient.keepalive.timeout"));
+        }
+    }
+
+    @Test
+    void testRejectsNonPositiveConnectionLimit() {
+        CoslineProperties properties = properties();
+        properties.setMaxConnectionsPerHost(0);
+        assertThrows(IllegalArgumentException.class, () -> new CoslineTransport(properties));
+    }
+
+    private static CoslineProperties properties() {
+        CoslineProperties properties = new CoslineProperties();
+        properties.setHost("localhost");
+        properties.setPort(6767);
+        properties.setCollectionName("vector_store");
+        return properties;
+    }
+}
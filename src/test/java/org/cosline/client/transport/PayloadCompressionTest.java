@@ -0,0 +1,151 @@
+package org.cosline.client.transport;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadCompressionTest {
+
+    private static final byte[] LARGE_BODY = "[1.0,2.0,3.0],".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void testCompressesBodiesAboveThreshold() throws IOException {
+        PayloadCompression compression = new PayloadCompression(true, 6, 1024);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentLength(LARGE_BODY.length);
+        AtomicReference<byte[]> sent = new AtomicReference<>();
+
+        compression.intercept(request(headers), LARGE_BODY, (request, body) -> {
+            sent.set(body);
+            return response(new HttpHeaders(), new byte[0]);
+        });
+
+        assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", headers.getFirst(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals(sent.get().length, headers.getContentLength());
+        assertTrue(sent.get().length < LARGE_BODY.length / 4);
+        try (InputStream inflated = new GZIPInputStream(new ByteArrayInputStream(sent.get()))) {
+            assertArrayEquals(LARGE_BODY, inflated.readAllBytes());
+        }
+    }
+
+    @Test
+    void testLeavesSmallBodiesAndDisabledCompressionAlone() throws IOException {
+        byte[] small = "{\"id\":\"a\"}".getBytes(StandardCharsets.UTF_8);
+        for (PayloadCompression compression : new PayloadCompression[] {
+                new PayloadCompression(true, 6, 1024), new PayloadCompression(false, 6, 0)}) {
+            HttpHeaders headers = new HttpHeaders();
+            AtomicReference<byte[]> sent = new AtomicReference<>();
+
+            compression.intercept(request(headers), small, (request, body) -> {
+                sent.set(body);
+                return response(new HttpHeaders(), new byte[0]);
+            });
+
+            assertSame(small, sent.get());
+            assertNull(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+            assertEquals("gzip", headers.getFirst(HttpHeaders.ACCEPT_ENCODING));
+        }
+    }
+
+    @Test
+    void testDecompressesGzipResponsesWhileReading() throws IOException {
+        PayloadCompression compression = new PayloadCompression(false, 6, 1024);
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        byte[] compressed = PayloadCompression.gzip(LARGE_BODY, 1);
+        responseHeaders.setContentLength(compressed.length);
+
+        try (ClientHttpResponse response = compression.intercept(request(new HttpHeaders()), new byte[0],
+                (request, body) -> response(responseHeaders, compressed))) {
+            assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            assertEquals(-1, response.getHeaders().getContentLength());
+            assertArrayEquals(LARGE_BODY, response.getBody().readAllBytes());
+        }
+    }
+
+    @Test
+    void testClosingTheResponseClosesTheGzipStream() throws IOException {
+        PayloadCompression compression = new PayloadCompression(false, 6, 1024);
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        byte[] compressed = PayloadCompression.gzip(LARGE_BODY, 1);
+
+        ClientHttpResponse response = compression.intercept(request(new HttpHeaders()), new byte[0],
+                (request, body) -> response(responseHeaders, compressed));
+        InputStream body = response.getBody();
+        body.read();
+        response.close();
+
+        // A closed InflaterInputStream has ended its inflater and refuses further reads
+        assertThrows(IOException.class, body::read);
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new PayloadCompression(true, 0, 1024));
+        assertThrows(IllegalArgumentException.class, () -> new PayloadCompression(true, 10, 1024));
+        assertThrows(IllegalArgumentException.class, () -> new PayloadCompression(true, 6, -1));
+    }
+
+    private static HttpRequest request(HttpHeaders headers) {
+        return new HttpRequest() {
+            @Override
+            public HttpMethod getMethod() {
+                return HttpMethod.POST;
+            }
+
+            @Override
+            public URI getURI() {
+                return URI.create("http://localhost:6767/api/v1/collections/vector_store/payloads");
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    private static ClientHttpResponse response(HttpHeaders headers, byte[] body) {
+        return new ClientHttpResponse() {
+            @Override
+            public HttpStatusCode getStatusCode() {
+                return HttpStatus.OK;
+            }
+
+            @Override
+            public String getStatusText() {
+                return "OK";
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}